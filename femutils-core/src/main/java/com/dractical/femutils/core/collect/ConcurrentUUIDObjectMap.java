@@ -0,0 +1,129 @@
+package com.dractical.femutils.core.collect;
+
+import com.dractical.femutils.core.check.Checks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Thread-safe {@link UUIDObjectMap}, striped over segments that each guard their own table,
+ * so threads working on different players rarely contend. {@link #computeIfAbsent} is atomic.
+ */
+@SuppressWarnings("unused")
+public final class ConcurrentUUIDObjectMap<V> {
+    private static final int SEGMENTS = 16;
+
+    private final UUIDObjectMap<V>[] segments;
+
+    public ConcurrentUUIDObjectMap() {
+        this(SEGMENTS * 16);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentUUIDObjectMap(int expected) {
+        Checks.nonNegative(expected, "expected");
+        segments = new UUIDObjectMap[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new UUIDObjectMap<>(expected / SEGMENTS + 1);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (UUIDObjectMap<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(UUID key) {
+        return get(key) != null;
+    }
+
+    public V get(UUID key) {
+        long most = key.getMostSignificantBits();
+        long least = key.getLeastSignificantBits();
+        UUIDObjectMap<V> segment = segment(most, least);
+        synchronized (segment) {
+            return segment.get(most, least);
+        }
+    }
+
+    public V getOrDefault(UUID key, V defaultValue) {
+        V v = get(key);
+        return v != null ? v : defaultValue;
+    }
+
+    public V put(UUID key, V value) {
+        UUIDObjectMap<V> segment = segment(key);
+        synchronized (segment) {
+            return segment.put(key, value);
+        }
+    }
+
+    /**
+     * Runs {@code mapping} at most once per absent key, while holding the key's segment.
+     * Keep it short and do not touch this map from it.
+     */
+    public V computeIfAbsent(UUID key, Function<? super UUID, ? extends V> mapping) {
+        UUIDObjectMap<V> segment = segment(key);
+        synchronized (segment) {
+            return segment.computeIfAbsent(key, mapping);
+        }
+    }
+
+    public V remove(UUID key) {
+        UUIDObjectMap<V> segment = segment(key);
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    public void clear() {
+        for (UUIDObjectMap<V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Visits entries one segment at a time. Not a snapshot of the whole map.
+     */
+    public void forEach(BiConsumer<? super UUID, ? super V> action) {
+        for (UUIDObjectMap<V> segment : segments) {
+            synchronized (segment) {
+                segment.forEach(action);
+            }
+        }
+    }
+
+    public Map<UUID, V> toMap() {
+        Map<UUID, V> out = new LinkedHashMap<>();
+        forEach(out::put);
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private UUIDObjectMap<V> segment(UUID key) {
+        return segment(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    private UUIDObjectMap<V> segment(long most, long least) {
+        // top bits, the segment tables index with the low bits of the same hash
+        return segments[UUIDObjectMap.hash(most, least) >>> 28];
+    }
+}
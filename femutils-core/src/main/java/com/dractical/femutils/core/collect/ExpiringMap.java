@@ -0,0 +1,196 @@
+package com.dractical.femutils.core.collect;
+
+import com.dractical.femutils.core.time.Clock;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe map whose entries expire after a per-entry time to live, e.g. for cooldowns,
+ * combat tags or invite tokens. Entries are striped over segments, each with its own
+ * {@link TimingWheel}, so expiry is O(1) per entry. Expired entries are never returned and
+ * are cleaned up lazily on access, or by a background sweeper if {@link #startSweeper} was called.
+ * Null keys and values are not allowed.
+ */
+@SuppressWarnings("unused")
+public final class ExpiringMap<K, V> implements Closeable {
+    private static final Duration DEFAULT_RESOLUTION = Duration.ofMillis(50);
+
+    private final ExpiringSegments<K, V, Entry<K, V>> segments;
+
+    public ExpiringMap(Duration defaultTtl) {
+        this(defaultTtl, DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param resolution granularity of the timing wheel. Lookups always honour the exact
+     *                   deadline, the resolution only delays when memory is reclaimed.
+     */
+    public ExpiringMap(Duration defaultTtl, Duration resolution) {
+        this(defaultTtl, resolution, Clock.system());
+    }
+
+    /**
+     * @param clock time source for deadlines, e.g. {@link Clock#coarse()} to avoid a system call per
+     *              operation, or a {@link com.dractical.femutils.core.time.FakeClock} in tests
+     */
+    public ExpiringMap(Duration defaultTtl, Duration resolution, Clock clock) {
+        this.segments = new ExpiringSegments<>(new HashKeys<>(), defaultTtl, resolution, clock);
+    }
+
+    public ExpiringMap<K, V> onRemoval(RemovalListener<? super K, ? super V> listener) {
+        segments.listener(listener);
+        return this;
+    }
+
+    /**
+     * Cleans up expired entries every {@code interval} on a daemon thread, so memory is
+     * reclaimed and listeners fire even for keys that are never accessed again.
+     */
+    public ExpiringMap<K, V> startSweeper(Duration interval) {
+        segments.startSweeper(interval, "FemUtils ExpiringMap Sweeper");
+        return this;
+    }
+
+    public V get(K key) {
+        return segments.get(key);
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Time left before {@code key} expires in milliseconds, 0 if it is absent or expired.
+     */
+    public long remainingMillis(K key) {
+        return segments.remainingMillis(key);
+    }
+
+    /**
+     * Puts with the default time to live.
+     *
+     * @return the previous live value, or null
+     */
+    public V put(K key, V value) {
+        return segments.put(key, value, true);
+    }
+
+    public V put(K key, V value, Duration ttl) {
+        return segments.put(key, value, ttl, true);
+    }
+
+    /**
+     * Puts only if there is no live value, e.g. to start a cooldown unless one is running.
+     *
+     * @return the existing live value, or null if the value was put
+     */
+    public V putIfAbsent(K key, V value, Duration ttl) {
+        return segments.put(key, value, ttl, false);
+    }
+
+    public V putIfAbsent(K key, V value) {
+        return segments.put(key, value, false);
+    }
+
+    public V remove(K key) {
+        return segments.remove(key);
+    }
+
+    /**
+     * Number of entries not yet cleaned up. Runs a cleanup first, so it is at most one tick stale.
+     */
+    public int size() {
+        return segments.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes every entry without notifying the listener.
+     */
+    public void clear() {
+        segments.clear();
+    }
+
+    /**
+     * Removes every expired entry and notifies the listener.
+     */
+    public void cleanUp() {
+        segments.cleanUp();
+    }
+
+    @Override
+    public void close() {
+        segments.close();
+    }
+
+    private static final class HashKeys<K, V> implements ExpiringSegments.Keys<K, V, Entry<K, V>> {
+        @Override
+        public ExpiringSegments.Table<K, Entry<K, V>> newTable() {
+            return new HashTable<>();
+        }
+
+        @Override
+        public int hash(K key) {
+            return Hashing.mix(key.hashCode());
+        }
+
+        @Override
+        public Entry<K, V> newEntry(K key, V value, long deadline) {
+            return new Entry<>(key, value, deadline);
+        }
+
+        @Override
+        public K key(Entry<K, V> entry) {
+            return entry.key;
+        }
+    }
+
+    private static final class HashTable<K, V> implements ExpiringSegments.Table<K, Entry<K, V>> {
+        private final Map<K, Entry<K, V>> map = new HashMap<>();
+
+        @Override
+        public Entry<K, V> get(K key) {
+            return map.get(key);
+        }
+
+        @Override
+        public void put(K key, Entry<K, V> entry) {
+            map.put(key, entry);
+        }
+
+        @Override
+        public Entry<K, V> remove(K key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public void unlink(Entry<K, V> entry) {
+            map.remove(entry.key);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+    }
+
+    private static final class Entry<K, V> extends ExpiringSegments.Entry<V> {
+        final K key;
+
+        Entry(K key, V value, long deadline) {
+            super(value, deadline);
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.dractical.femutils.core.collect;
+
+import com.dractical.femutils.core.check.Checks;
+import com.dractical.femutils.core.time.Clock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Segments, timing wheels, expiry, listeners and the sweeper shared by {@link ExpiringMap} and
+ * {@link UUIDExpiringMap}. How keys are hashed and stored in a segment comes from a {@link Keys} strategy.
+ * Listeners are always notified after the segment lock is released.
+ */
+final class ExpiringSegments<K, V, E extends ExpiringSegments.Entry<V>> {
+    private static final int SEGMENTS = 16;
+    private static final int SEGMENT_SHIFT = 28;
+
+    private final Keys<K, V, E> keys;
+    private final long defaultTtlMillis;
+    private final long resolutionMillis;
+    private final Clock clock;
+    private final Segment<K, V, E>[] segments;
+    private volatile RemovalListener<? super K, ? super V> listener;
+    private ScheduledExecutorService sweeper;
+
+    ExpiringSegments(Keys<K, V, E> keys, Duration defaultTtl, Duration resolution, Clock clock) {
+        this.keys = keys;
+        this.clock = Checks.notNull(clock, "clock");
+        this.defaultTtlMillis = ttlMillis(defaultTtl);
+        this.resolutionMillis = Checks.positive(Checks.notNull(resolution, "resolution").toMillis(), "resolution");
+        long tick = now() / resolutionMillis;
+        this.segments = newSegments();
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(keys.newTable(), tick);
+        }
+    }
+
+    void listener(RemovalListener<? super K, ? super V> listener) {
+        this.listener = Checks.notNull(listener, "listener");
+    }
+
+    synchronized void startSweeper(Duration interval, String threadName) {
+        long millis = Checks.positive(Checks.notNull(interval, "interval").toMillis(), "interval");
+        Checks.state(sweeper == null, "Sweeper already started");
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::cleanUp, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    V get(K key) {
+        Segment<K, V, E> segment = segment(keys.hash(key));
+        long now = now();
+        V value;
+        List<E> expired;
+        synchronized (segment) {
+            segment.expire(tick(now));
+            value = segment.live(segment.table.get(key), now);
+            expired = segment.takeExpired();
+        }
+        notifyExpired(expired);
+        return value;
+    }
+
+    long remainingMillis(K key) {
+        Segment<K, V, E> segment = segment(keys.hash(key));
+        long now = now();
+        synchronized (segment) {
+            E entry = segment.table.get(key);
+            return entry == null ? 0L : Math.max(0L, entry.deadline - now);
+        }
+    }
+
+    V put(K key, V value, Duration ttl, boolean replace) {
+        return put(key, value, ttlMillis(ttl), replace);
+    }
+
+    V put(K key, V value, boolean replace) {
+        return put(key, value, defaultTtlMillis, replace);
+    }
+
+    V remove(K key) {
+        Segment<K, V, E> segment = segment(keys.hash(key));
+        long now = now();
+        V value;
+        List<E> expired;
+        synchronized (segment) {
+            segment.expire(tick(now));
+            value = segment.detach(segment.table.remove(key), now);
+            expired = segment.takeExpired();
+        }
+        notifyExpired(expired);
+        if (value != null) notify(key, value, RemovalListener.Cause.EXPLICIT);
+        return value;
+    }
+
+    int size() {
+        cleanUp();
+        int size = 0;
+        for (Segment<K, V, E> segment : segments) {
+            synchronized (segment) {
+                size += segment.table.size();
+            }
+        }
+        return size;
+    }
+
+    void clear() {
+        for (Segment<K, V, E> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    void cleanUp() {
+        long tick = tick(now());
+        for (Segment<K, V, E> segment : segments) {
+            List<E> expired;
+            synchronized (segment) {
+                segment.expire(tick);
+                expired = segment.takeExpired();
+            }
+            notifyExpired(expired);
+        }
+    }
+
+    synchronized void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+
+    /**
+     * Segment owning keys with this {@link Keys#hash}, for lookups that bypass {@link #get}.
+     * Callers lock it, {@link Segment#expire} first and pass {@link Segment#takeExpired} to {@link #notifyExpired}.
+     */
+    Segment<K, V, E> segment(int hash) {
+        return segments[hash >>> SEGMENT_SHIFT];
+    }
+
+    long now() {
+        return clock.nanoTime() / 1_000_000L;
+    }
+
+    long tick(long nowMillis) {
+        return nowMillis / resolutionMillis;
+    }
+
+    void notifyExpired(List<E> expired) {
+        if (expired == null) return;
+        for (E entry : expired) {
+            notify(keys.key(entry), entry.value, RemovalListener.Cause.EXPIRED);
+        }
+    }
+
+    private V put(K key, V value, long ttlMillis, boolean replace) {
+        Checks.notNull(key, "key");
+        Checks.notNull(value, "value");
+        Segment<K, V, E> segment = segment(keys.hash(key));
+        long now = now();
+        long deadline = now + ttlMillis;
+        long deadlineTick = (deadline + resolutionMillis - 1) / resolutionMillis;
+        V previous;
+        List<E> expired;
+        synchronized (segment) {
+            segment.expire(tick(now));
+            E entry = segment.table.get(key);
+            previous = segment.live(entry, now);
+            if (previous == null) {
+                entry = keys.newEntry(key, value, deadline);
+                segment.insert(key, entry, deadlineTick);
+            } else if (replace) {
+                entry.value = value;
+                entry.deadline = deadline;
+                segment.reschedule(entry, deadlineTick);
+            }
+            expired = segment.takeExpired();
+        }
+        notifyExpired(expired);
+        if (replace && previous != null) notify(key, previous, RemovalListener.Cause.REPLACED);
+        return previous;
+    }
+
+    private void notify(K key, V value, RemovalListener.Cause cause) {
+        RemovalListener<? super K, ? super V> l = listener;
+        if (l != null) l.onRemoval(key, value, cause);
+    }
+
+    private static long ttlMillis(Duration ttl) {
+        return Checks.positive(Checks.notNull(ttl, "ttl").toMillis(), "ttl");
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, V, E extends Entry<V>> Segment<K, V, E>[] newSegments() {
+        return new Segment[SEGMENTS];
+    }
+
+    /**
+     * How one kind of map hashes, stores and rebuilds its keys.
+     */
+    interface Keys<K, V, E extends Entry<V>> {
+        Table<K, E> newTable();
+
+        int hash(K key);
+
+        E newEntry(K key, V value, long deadline);
+
+        /**
+         * Key to pass to the removal listener.
+         */
+        K key(E entry);
+    }
+
+    /**
+     * Key to entry table of one segment. Only used under the segment lock.
+     */
+    interface Table<K, E> {
+        E get(K key);
+
+        void put(K key, E entry);
+
+        E remove(K key);
+
+        /**
+         * Removes the entry under its own key.
+         */
+        void unlink(E entry);
+
+        int size();
+
+        void clear();
+    }
+
+    abstract static class Entry<V> extends TimingWheel.Node {
+        V value;
+        long deadline;
+
+        Entry(V value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+    }
+
+    static final class Segment<K, V, E extends Entry<V>> {
+        final Table<K, E> table;
+        private final TimingWheel<E> wheel;
+        // collected under the lock, handed to the listener once it is released
+        private List<E> expired;
+
+        Segment(Table<K, E> table, long tick) {
+            this.table = table;
+            this.wheel = new TimingWheel<>(tick);
+        }
+
+        void expire(long tick) {
+            if (tick <= wheel.currentTick()) return;
+            wheel.advance(tick, entry -> {
+                table.unlink(entry);
+                addExpired(entry);
+            });
+        }
+
+        /**
+         * Value of a looked-up entry, or null if it is absent. An entry past its deadline is removed.
+         */
+        V live(E entry, long now) {
+            if (entry == null) return null;
+            if (entry.deadline > now) return entry.value;
+            table.unlink(entry);
+            wheel.cancel(entry);
+            addExpired(entry);
+            return null;
+        }
+
+        /**
+         * Finishes removing an entry already taken out of the table, returning its value if it was live.
+         */
+        V detach(E entry, long now) {
+            if (entry == null) return null;
+            wheel.cancel(entry);
+            if (entry.deadline > now) return entry.value;
+            addExpired(entry);
+            return null;
+        }
+
+        List<E> takeExpired() {
+            List<E> out = expired;
+            expired = null;
+            return out;
+        }
+
+        private void insert(K key, E entry, long deadlineTick) {
+            table.put(key, entry);
+            wheel.schedule(entry, deadlineTick);
+        }
+
+        private void reschedule(E entry, long deadlineTick) {
+            wheel.cancel(entry);
+            wheel.schedule(entry, deadlineTick);
+        }
+
+        private void clear() {
+            table.clear();
+            wheel.clear();
+            expired = null;
+        }
+
+        private void addExpired(E entry) {
+            if (expired == null) expired = new ArrayList<>(1);
+            expired.add(entry);
+        }
+    }
+}
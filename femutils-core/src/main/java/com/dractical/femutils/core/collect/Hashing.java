@@ -0,0 +1,57 @@
+package com.dractical.femutils.core.collect;
+
+import com.dractical.femutils.core.check.Checks;
+
+/**
+ * Sizing and hash mixing shared by the open-addressing primitive collections.
+ */
+final class Hashing {
+    static final float LOAD_FACTOR = 0.75f;
+    private static final int MAX_TABLE = 1 << 30;
+
+    private Hashing() {
+        throw new AssertionError("No " + Hashing.class.getName() + " instances");
+    }
+
+    static int mix(int x) {
+        int h = x * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int mix(long x) {
+        long h = x * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+
+    /**
+     * Power of two table length that holds {@code expected} entries without resizing.
+     */
+    static int tableSize(int expected) {
+        Checks.nonNegative(expected, "expected");
+        long needed = Math.max(2L, (long) Math.ceil(expected / LOAD_FACTOR));
+        if (needed > MAX_TABLE) {
+            throw new IllegalArgumentException("Too many entries: " + expected);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    static int maxFill(int tableSize) {
+        return Math.min(tableSize - 1, (int) Math.ceil(tableSize * LOAD_FACTOR));
+    }
+
+    static int grow(int tableSize) {
+        if (tableSize >= MAX_TABLE) {
+            throw new IllegalStateException("Collection is full");
+        }
+        return tableSize << 1;
+    }
+
+    /**
+     * Whether the entry whose home slot is {@code slot} may move back from {@code pos} into the
+     * hole at {@code last} during backward-shift deletion.
+     */
+    static boolean canShift(int last, int slot, int pos) {
+        return last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos;
+    }
+}
@@ -0,0 +1,217 @@
+package com.dractical.femutils.core.collect;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Open-addressing {@code int -> int} map without boxing. Absent keys read as 0 unless a default is given.
+ * Not thread-safe.
+ */
+@SuppressWarnings("unused")
+public final class IntIntMap {
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int maxFill;
+    private int size;
+    // key 0 marks a free slot, so it lives outside the table
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    public IntIntMap(int expected) {
+        allocate(Hashing.tableSize(expected));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == 0) return hasZeroKey;
+        return find(key) >= 0;
+    }
+
+    public int get(int key) {
+        return getOrDefault(key, 0);
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0) return hasZeroKey ? zeroValue : defaultValue;
+        int pos = find(key);
+        return pos >= 0 ? values[pos] : defaultValue;
+    }
+
+    /**
+     * @return the previous value, or 0 if there was none
+     */
+    public int put(int key, int value) {
+        if (key == 0) {
+            int old = zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return old;
+        }
+        int pos = Hashing.mix(key) & mask;
+        while (keys[pos] != 0) {
+            if (keys[pos] == key) {
+                int old = values[pos];
+                values[pos] = value;
+                return old;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size > maxFill) rehash(Hashing.grow(keys.length));
+        return 0;
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key}, treating absent keys as 0.
+     *
+     * @return the new value
+     */
+    public int addTo(int key, int delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            return zeroValue += delta;
+        }
+        int pos = Hashing.mix(key) & mask;
+        while (keys[pos] != 0) {
+            if (keys[pos] == key) return values[pos] += delta;
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = key;
+        values[pos] = delta;
+        if (++size > maxFill) rehash(Hashing.grow(keys.length));
+        return delta;
+    }
+
+    /**
+     * @return the removed value, or 0 if there was none
+     */
+    public int remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey) return 0;
+            hasZeroKey = false;
+            size--;
+            int old = zeroValue;
+            zeroValue = 0;
+            return old;
+        }
+        int pos = find(key);
+        if (pos < 0) return 0;
+        int old = values[pos];
+        size--;
+        shiftKeys(pos);
+        return old;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, 0);
+        hasZeroKey = false;
+        zeroValue = 0;
+        size = 0;
+    }
+
+    public void forEach(EntryConsumer action) {
+        if (hasZeroKey) action.accept(0, zeroValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) action.accept(keys[i], values[i]);
+        }
+    }
+
+    public int[] keys() {
+        int[] out = new int[size];
+        int n = 0;
+        if (hasZeroKey) out[n++] = 0;
+        for (int key : keys) {
+            if (key != 0) out[n++] = key;
+        }
+        return out;
+    }
+
+    /**
+     * Boxed copy, e.g. for serialization.
+     */
+    public Map<Integer, Integer> toMap() {
+        Map<Integer, Integer> out = new LinkedHashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+        forEach(out::put);
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private int find(int key) {
+        int pos = Hashing.mix(key) & mask;
+        int k;
+        while ((k = keys[pos]) != 0) {
+            if (k == key) return pos;
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftKeys(int pos) {
+        int last;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            int k;
+            while (true) {
+                if ((k = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                if (Hashing.canShift(last, Hashing.mix(k) & mask, pos)) break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = k;
+            values[last] = values[pos];
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        values = new int[tableSize];
+        mask = tableSize - 1;
+        maxFill = Hashing.maxFill(tableSize);
+    }
+
+    private void rehash(int tableSize) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(tableSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int k = oldKeys[i];
+            if (k == 0) continue;
+            int pos = Hashing.mix(k) & mask;
+            while (keys[pos] != 0) pos = (pos + 1) & mask;
+            keys[pos] = k;
+            values[pos] = oldValues[i];
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+}
@@ -0,0 +1,171 @@
+package com.dractical.femutils.core.collect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing set of {@code long}s without boxing, e.g. for packed chunk or block keys.
+ * Not thread-safe.
+ */
+@SuppressWarnings("unused")
+public final class LongHashSet {
+    private long[] keys;
+    private int mask;
+    private int maxFill;
+    private int size;
+    // 0 marks a free slot, so it is tracked outside the table
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expected) {
+        allocate(Hashing.tableSize(expected));
+    }
+
+    public static LongHashSet of(long... values) {
+        LongHashSet set = new LongHashSet(values.length);
+        for (long value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) return hasZero;
+        int pos = Hashing.mix(value) & mask;
+        long k;
+        while ((k = keys[pos]) != 0) {
+            if (k == value) return true;
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the value was not present
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int pos = Hashing.mix(value) & mask;
+        long k;
+        while ((k = keys[pos]) != 0) {
+            if (k == value) return false;
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = value;
+        if (++size > maxFill) rehash(Hashing.grow(keys.length));
+        return true;
+    }
+
+    /**
+     * @return true if the value was present
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            if (!hasZero) return false;
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int pos = Hashing.mix(value) & mask;
+        long k;
+        while ((k = keys[pos]) != 0) {
+            if (k == value) {
+                size--;
+                shiftKeys(pos);
+                return true;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, 0L);
+        hasZero = false;
+        size = 0;
+    }
+
+    public void forEach(LongConsumer action) {
+        if (hasZero) action.accept(0L);
+        for (long key : keys) {
+            if (key != 0) action.accept(key);
+        }
+    }
+
+    public long[] toArray() {
+        long[] out = new long[size];
+        int n = 0;
+        if (hasZero) out[n++] = 0L;
+        for (long key : keys) {
+            if (key != 0) out[n++] = key;
+        }
+        return out;
+    }
+
+    /**
+     * Boxed copy, e.g. for serialization.
+     */
+    public List<Long> toList() {
+        List<Long> out = new ArrayList<>(size);
+        forEach(out::add);
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+
+    private void shiftKeys(int pos) {
+        int last;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            long k;
+            while (true) {
+                if ((k = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                if (Hashing.canShift(last, Hashing.mix(k) & mask, pos)) break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = k;
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        mask = tableSize - 1;
+        maxFill = Hashing.maxFill(tableSize);
+    }
+
+    private void rehash(int tableSize) {
+        long[] oldKeys = keys;
+        allocate(tableSize);
+        for (long k : oldKeys) {
+            if (k == 0) continue;
+            int pos = Hashing.mix(k) & mask;
+            while (keys[pos] != 0) pos = (pos + 1) & mask;
+            keys[pos] = k;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.dractical.femutils.core.collect;
+
+import com.dractical.femutils.core.check.Checks;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Open-addressing {@code long -> V} map without boxed keys, e.g. for chunk or block keys.
+ * Null values are not allowed. Not thread-safe.
+ */
+@SuppressWarnings({"unused", "unchecked"})
+public final class LongObjectMap<V> {
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int maxFill;
+    private int size;
+    // key 0 marks a free slot, so it lives outside the table
+    private V zeroValue;
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    public LongObjectMap(int expected) {
+        allocate(Hashing.tableSize(expected));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V get(long key) {
+        if (key == 0) return zeroValue;
+        int pos = find(key);
+        return pos >= 0 ? (V) values[pos] : null;
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        V v = get(key);
+        return v != null ? v : defaultValue;
+    }
+
+    /**
+     * @return the previous value, or null if there was none
+     */
+    public V put(long key, V value) {
+        Checks.notNull(value, "value");
+        if (key == 0) {
+            V old = zeroValue;
+            if (old == null) size++;
+            zeroValue = value;
+            return old;
+        }
+        int pos = Hashing.mix(key) & mask;
+        while (keys[pos] != 0) {
+            if (keys[pos] == key) {
+                V old = (V) values[pos];
+                values[pos] = value;
+                return old;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size > maxFill) rehash(Hashing.grow(keys.length));
+        return null;
+    }
+
+    public V computeIfAbsent(long key, LongFunction<? extends V> mapping) {
+        V existing = get(key);
+        if (existing != null) return existing;
+        V created = mapping.apply(key);
+        if (created != null) put(key, created);
+        return created;
+    }
+
+    /**
+     * @return the removed value, or null if there was none
+     */
+    public V remove(long key) {
+        if (key == 0) {
+            V old = zeroValue;
+            if (old != null) size--;
+            zeroValue = null;
+            return old;
+        }
+        int pos = find(key);
+        if (pos < 0) return null;
+        V old = (V) values[pos];
+        size--;
+        shiftKeys(pos);
+        return old;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, null);
+        zeroValue = null;
+        size = 0;
+    }
+
+    public void forEach(EntryConsumer<? super V> action) {
+        if (zeroValue != null) action.accept(0L, zeroValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    public long[] keys() {
+        long[] out = new long[size];
+        int n = 0;
+        if (zeroValue != null) out[n++] = 0L;
+        for (long key : keys) {
+            if (key != 0) out[n++] = key;
+        }
+        return out;
+    }
+
+    /**
+     * Boxed copy, e.g. for serialization.
+     */
+    public Map<Long, V> toMap() {
+        Map<Long, V> out = new LinkedHashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+        forEach(out::put);
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private int find(long key) {
+        int pos = Hashing.mix(key) & mask;
+        long k;
+        while ((k = keys[pos]) != 0) {
+            if (k == key) return pos;
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftKeys(int pos) {
+        int last;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            long k;
+            while (true) {
+                if ((k = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    values[last] = null;
+                    return;
+                }
+                if (Hashing.canShift(last, Hashing.mix(k) & mask, pos)) break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = k;
+            values[last] = values[pos];
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        values = new Object[tableSize];
+        mask = tableSize - 1;
+        maxFill = Hashing.maxFill(tableSize);
+    }
+
+    private void rehash(int tableSize) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(tableSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if (k == 0) continue;
+            int pos = Hashing.mix(k) & mask;
+            while (keys[pos] != 0) pos = (pos + 1) & mask;
+            keys[pos] = k;
+            values[pos] = oldValues[i];
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
@@ -3,6 +3,7 @@
 import com.dractical.femutils.core.check.Checks;
 
 import java.util.Map;
+import java.util.concurrent.*;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -11,6 +12,8 @@
  */
 @SuppressWarnings("unused")
 public final class MapUtils {
+    // loads in progress, keyed by map identity and key, shared by the single-flight helpers
+    private static final ConcurrentMap<Flight, CompletableFuture<Object>> IN_FLIGHT = new ConcurrentHashMap<>();
 
     private MapUtils() {
         throw new AssertionError("No " + MapUtils.class.getName() + " instances");
@@ -42,6 +45,7 @@ public static <K, V> V getOrDefault(Map<K, V> map, K key, Supplier<? extends V>
 
     /**
      * Like Map.computeIfAbsent but null-safe for the map.
+     * On a {@link ConcurrentMap} the computer runs at most once per key at a time, see {@link #computeOnce}.
      */
     public static <K, V> V getOrDefaultCompute(Map<K, V> map, K key, Function<? super K, ? extends V> computer) {
         Checks.notNull(computer, "computer");
@@ -49,6 +53,9 @@ public static <K, V> V getOrDefaultCompute(Map<K, V> map, K key, Function<? supe
         if (map == null) {
             return computer.apply(key);
         }
+        if (map instanceof ConcurrentMap<K, V> concurrent) {
+            return computeOnce(concurrent, key, computer);
+        }
 
         V existing = map.get(key);
         if (existing != null) {
@@ -64,12 +71,16 @@ public static <K, V> V getOrDefaultCompute(Map<K, V> map, K key, Function<? supe
 
     /**
      * Variant that *does* respect null values in the map:
+     * On a {@link ConcurrentMap}, which cannot hold nulls, this is {@link #computeOnce}.
      */
     public static <K, V> V getOrComputeIfAbsent(Map<K, V> map, K key, Function<? super K, ? extends V> computer) {
         Checks.notNull(computer, "computer");
         if (map == null) {
             return computer.apply(key);
         }
+        if (map instanceof ConcurrentMap<K, V> concurrent) {
+            return computeOnce(concurrent, key, computer);
+        }
 
         V existing = map.get(key);
         if (existing != null || map.containsKey(key)) {
@@ -83,6 +94,105 @@ public static <K, V> V getOrComputeIfAbsent(Map<K, V> map, K key, Function<? sup
         return computed;
     }
 
+    /**
+     * Single-flight computeIfAbsent: concurrent callers for the same absent key wait for one
+     * computation instead of running their own. Unlike {@link ConcurrentHashMap#computeIfAbsent}
+     * no map lock is held while computing, so slow computers do not block other keys.
+     * A null result is returned but not stored. The computer must not call this for the same key.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> V computeOnce(ConcurrentMap<K, V> map, K key, Function<? super K, ? extends V> computer) {
+        Checks.notNull(map, "map");
+        Checks.notNull(computer, "computer");
+        V existing = map.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        Flight flight = new Flight(map, key);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = IN_FLIGHT.putIfAbsent(flight, mine);
+        if (running != null) {
+            return (V) await(running);
+        }
+        try {
+            V computed = map.get(key);
+            if (computed == null) {
+                computed = computer.apply(key);
+                if (computed != null) {
+                    V raced = map.putIfAbsent(key, computed);
+                    if (raced != null) computed = raced;
+                }
+            }
+            mine.complete(computed);
+            return computed;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            IN_FLIGHT.remove(flight, mine);
+        }
+    }
+
+    /**
+     * Async single-flight load: returns the cached value, joins a load already running for the
+     * key, or starts {@code loader}. The result is stored once it completes, failures are not.
+     * Each caller gets its own dependent future, so cancelling one does not cancel the load.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> CompletableFuture<V> computeOnceAsync(ConcurrentMap<K, V> map, K key,
+                                                               Function<? super K, ? extends CompletionStage<? extends V>> loader) {
+        Checks.notNull(map, "map");
+        Checks.notNull(loader, "loader");
+        V existing = map.get(key);
+        if (existing != null) {
+            return CompletableFuture.completedFuture(existing);
+        }
+        Flight flight = new Flight(map, key);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = IN_FLIGHT.putIfAbsent(flight, mine);
+        if (running != null) {
+            return running.thenApply(v -> (V) v);
+        }
+        CompletionStage<? extends V> loading;
+        try {
+            existing = map.get(key);
+            loading = existing != null
+                    ? CompletableFuture.completedFuture(existing)
+                    : Checks.notNull(loader.apply(key), "loader result");
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            IN_FLIGHT.remove(flight, mine);
+            return mine.thenApply(v -> (V) v);
+        }
+        loading.whenComplete((value, error) -> {
+            try {
+                if (error != null) {
+                    mine.completeExceptionally(error);
+                    return;
+                }
+                V result = value;
+                if (value != null) {
+                    V raced = map.putIfAbsent(key, value);
+                    if (raced != null) result = raced;
+                }
+                mine.complete(result);
+            } finally {
+                IN_FLIGHT.remove(flight, mine);
+            }
+        });
+        return mine.thenApply(v -> (V) v);
+    }
+
+    /**
+     * Like {@link #computeOnceAsync(ConcurrentMap, Object, Function)}, running a blocking computer on {@code executor}.
+     */
+    public static <K, V> CompletableFuture<V> computeOnceAsync(ConcurrentMap<K, V> map, K key,
+                                                               Function<? super K, ? extends V> computer, Executor executor) {
+        Checks.notNull(computer, "computer");
+        Checks.notNull(executor, "executor");
+        return computeOnceAsync(map, key, k -> CompletableFuture.supplyAsync(() -> computer.apply(k), executor));
+    }
+
     /**
      * Null-safe putIfAbsent.
      */
@@ -100,4 +210,47 @@ public static <K, V> V putIfAbsent(Map<K, V> map, K key, V value) {
     public static <M extends Map<?, ?>> M requireNonNull(M map, String name) {
         return Checks.notNull(map, name);
     }
+
+    private static Object await(CompletableFuture<Object> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException re) throw re;
+                    if (cause instanceof Error err) throw err;
+                    throw new CompletionException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Identity of a map plus a key. Maps are compared by reference, not by contents.
+     */
+    private static final class Flight {
+        private final Map<?, ?> map;
+        private final Object key;
+
+        Flight(Map<?, ?> map, Object key) {
+            this.map = map;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Flight other && other.map == map && java.util.Objects.equals(other.key, key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(map) + java.util.Objects.hashCode(key);
+        }
+    }
 }
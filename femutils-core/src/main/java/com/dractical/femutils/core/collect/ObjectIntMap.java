@@ -0,0 +1,182 @@
+package com.dractical.femutils.core.collect;
+
+import com.dractical.femutils.core.check.Checks;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Open-addressing {@code K -> int} map without boxed values, e.g. for counters.
+ * Null keys are not allowed. Absent keys read as 0 unless a default is given. Not thread-safe.
+ */
+@SuppressWarnings({"unused", "unchecked"})
+public final class ObjectIntMap<K> {
+    private Object[] keys;
+    private int[] values;
+    private int mask;
+    private int maxFill;
+    private int size;
+
+    public ObjectIntMap() {
+        this(16);
+    }
+
+    public ObjectIntMap(int expected) {
+        allocate(Hashing.tableSize(expected));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(Object key) {
+        return key != null && find(key) >= 0;
+    }
+
+    public int get(Object key) {
+        return getOrDefault(key, 0);
+    }
+
+    public int getOrDefault(Object key, int defaultValue) {
+        if (key == null) return defaultValue;
+        int pos = find(key);
+        return pos >= 0 ? values[pos] : defaultValue;
+    }
+
+    /**
+     * @return the previous value, or 0 if there was none
+     */
+    public int put(K key, int value) {
+        int pos = slot(Checks.notNull(key, "key"));
+        if (keys[pos] != null) {
+            int old = values[pos];
+            values[pos] = value;
+            return old;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size > maxFill) rehash(Hashing.grow(keys.length));
+        return 0;
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key}, treating absent keys as 0.
+     *
+     * @return the new value
+     */
+    public int addTo(K key, int delta) {
+        int pos = slot(Checks.notNull(key, "key"));
+        if (keys[pos] != null) return values[pos] += delta;
+        keys[pos] = key;
+        values[pos] = delta;
+        if (++size > maxFill) rehash(Hashing.grow(keys.length));
+        return delta;
+    }
+
+    /**
+     * @return the removed value, or 0 if there was none
+     */
+    public int remove(Object key) {
+        if (key == null) return 0;
+        int pos = find(key);
+        if (pos < 0) return 0;
+        int old = values[pos];
+        size--;
+        shiftKeys(pos);
+        return old;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    public void forEach(ObjIntConsumer<? super K> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) action.accept((K) keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Boxed copy, e.g. for serialization.
+     */
+    public Map<K, Integer> toMap() {
+        Map<K, Integer> out = new LinkedHashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+        forEach(out::put);
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private int find(Object key) {
+        int pos = Hashing.mix(key.hashCode()) & mask;
+        Object k;
+        while ((k = keys[pos]) != null) {
+            if (k.equals(key)) return pos;
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Slot holding the key, or the free slot where it would be inserted.
+     */
+    private int slot(Object key) {
+        int pos = Hashing.mix(key.hashCode()) & mask;
+        Object k;
+        while ((k = keys[pos]) != null) {
+            if (k.equals(key)) return pos;
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    private void shiftKeys(int pos) {
+        int last;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            Object k;
+            while (true) {
+                if ((k = keys[pos]) == null) {
+                    keys[last] = null;
+                    return;
+                }
+                if (Hashing.canShift(last, Hashing.mix(k.hashCode()) & mask, pos)) break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = k;
+            values[last] = values[pos];
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new Object[tableSize];
+        values = new int[tableSize];
+        mask = tableSize - 1;
+        maxFill = Hashing.maxFill(tableSize);
+    }
+
+    private void rehash(int tableSize) {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(tableSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object k = oldKeys[i];
+            if (k == null) continue;
+            int pos = Hashing.mix(k.hashCode()) & mask;
+            while (keys[pos] != null) pos = (pos + 1) & mask;
+            keys[pos] = k;
+            values[pos] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.dractical.femutils.core.collect;
+
+/**
+ * Notified when an entry leaves an {@link ExpiringMap} or {@link UUIDExpiringMap}.
+ * Called on the thread that caused the removal, outside any lock of the map.
+ */
+@FunctionalInterface
+public interface RemovalListener<K, V> {
+    void onRemoval(K key, V value, Cause cause);
+
+    enum Cause {
+        /**
+         * The entry's time to live ran out.
+         */
+        EXPIRED,
+        /**
+         * The entry was removed by a call to {@code remove}.
+         */
+        EXPLICIT,
+        /**
+         * The entry's value was overwritten by a {@code put}.
+         */
+        REPLACED
+    }
+}
@@ -0,0 +1,157 @@
+package com.dractical.femutils.core.collect;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel, four levels of 64 slots plus an overflow list. Scheduling and
+ * cancelling are O(1), and advancing by one tick touches one slot per level that wraps.
+ * Not thread-safe, owners guard it with their own lock.
+ */
+final class TimingWheel<N extends TimingWheel.Node> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int OVERFLOW = -1;
+
+    private final Node[][] slots = new Node[LEVELS][SLOTS];
+    private Node overflow;
+    private long currentTick;
+
+    TimingWheel(long startTick) {
+        this.currentTick = startTick;
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Schedules the node for {@code deadlineTick}. Deadlines at or before the current tick
+     * fire on the next advance.
+     */
+    void schedule(N node, long deadlineTick) {
+        node.deadlineTick = Math.max(deadlineTick, currentTick + 1);
+        place(node);
+    }
+
+    void cancel(N node) {
+        if (node.level == Node.UNSCHEDULED) return;
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else if (node.level == OVERFLOW) {
+            overflow = node.next;
+        } else {
+            slots[node.level][node.slot] = node.next;
+        }
+        if (node.next != null) node.next.prev = node.prev;
+        node.prev = node.next = null;
+        node.level = Node.UNSCHEDULED;
+    }
+
+    /**
+     * Moves the wheel to {@code nowTick}, passing every node whose deadline was reached to {@code expired}.
+     * The node is unscheduled before it is passed on.
+     */
+    void advance(long nowTick, Consumer<? super N> expired) {
+        if (nowTick - currentTick > (long) SLOTS * SLOTS) {
+            // long idle gap, rescheduling everything is cheaper than stepping through each tick
+            Node all = drainAll();
+            currentTick = nowTick;
+            reschedule(all, expired);
+            return;
+        }
+        while (currentTick < nowTick) {
+            long tick = ++currentTick;
+            if ((tick & ((1L << (BITS * LEVELS)) - 1)) == 0) {
+                Node list = overflow;
+                overflow = null;
+                reschedule(list, expired);
+            }
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if ((tick & ((1L << (BITS * level)) - 1)) == 0) {
+                    int slot = (int) (tick >>> (BITS * level)) & MASK;
+                    Node list = slots[level][slot];
+                    slots[level][slot] = null;
+                    reschedule(list, expired);
+                }
+            }
+            int slot = (int) tick & MASK;
+            Node list = slots[0][slot];
+            slots[0][slot] = null;
+            reschedule(list, expired);
+        }
+    }
+
+    void clear() {
+        for (Node[] level : slots) {
+            java.util.Arrays.fill(level, null);
+        }
+        overflow = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reschedule(Node list, Consumer<? super N> expired) {
+        while (list != null) {
+            Node next = list.next;
+            list.prev = list.next = null;
+            list.level = Node.UNSCHEDULED;
+            if (list.deadlineTick <= currentTick) {
+                expired.accept((N) list);
+            } else {
+                place(list);
+            }
+            list = next;
+        }
+    }
+
+    private void place(Node node) {
+        // the highest 6-bit group where deadline and now differ picks the level, so the
+        // slot is always ahead of the current position within that level's rotation
+        long diff = node.deadlineTick ^ currentTick;
+        int level = (63 - Long.numberOfLeadingZeros(diff)) / BITS;
+        Node head;
+        if (level >= LEVELS) {
+            node.level = OVERFLOW;
+            head = overflow;
+            overflow = node;
+        } else {
+            int slot = (int) (node.deadlineTick >>> (BITS * level)) & MASK;
+            node.level = level;
+            node.slot = slot;
+            head = slots[level][slot];
+            slots[level][slot] = node;
+        }
+        node.prev = null;
+        node.next = head;
+        if (head != null) head.prev = node;
+    }
+
+    private Node drainAll() {
+        Node all = overflow;
+        overflow = null;
+        for (Node[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                Node list = level[i];
+                level[i] = null;
+                while (list != null) {
+                    Node next = list.next;
+                    list.next = all;
+                    all = list;
+                    list = next;
+                }
+            }
+        }
+        return all;
+    }
+
+    abstract static class Node {
+        static final int UNSCHEDULED = -2;
+
+        long deadlineTick;
+        int level = UNSCHEDULED;
+        int slot;
+        Node prev;
+        Node next;
+    }
+}
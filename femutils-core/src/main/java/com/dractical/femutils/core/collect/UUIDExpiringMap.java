@@ -0,0 +1,212 @@
+package com.dractical.femutils.core.collect;
+
+import com.dractical.femutils.core.time.Clock;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link ExpiringMap} keyed by player or entity UUIDs, stored as two longs per key in a
+ * {@link UUIDObjectMap}. Lookups compare bits instead of calling {@link UUID#equals}.
+ */
+@SuppressWarnings("unused")
+public final class UUIDExpiringMap<V> implements Closeable {
+    private static final Duration DEFAULT_RESOLUTION = Duration.ofMillis(50);
+
+    private final ExpiringSegments<UUID, V, Entry<V>> segments;
+
+    public UUIDExpiringMap(Duration defaultTtl) {
+        this(defaultTtl, DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param resolution granularity of the timing wheel. Lookups always honour the exact
+     *                   deadline, the resolution only delays when memory is reclaimed.
+     */
+    public UUIDExpiringMap(Duration defaultTtl, Duration resolution) {
+        this(defaultTtl, resolution, Clock.system());
+    }
+
+    /**
+     * @param clock time source for deadlines, e.g. {@link Clock#coarse()} to avoid a system call per
+     *              operation, or a {@link com.dractical.femutils.core.time.FakeClock} in tests
+     */
+    public UUIDExpiringMap(Duration defaultTtl, Duration resolution, Clock clock) {
+        this.segments = new ExpiringSegments<>(new UUIDKeys<>(), defaultTtl, resolution, clock);
+    }
+
+    public UUIDExpiringMap<V> onRemoval(RemovalListener<? super UUID, ? super V> listener) {
+        segments.listener(listener);
+        return this;
+    }
+
+    /**
+     * Cleans up expired entries every {@code interval} on a daemon thread, so memory is
+     * reclaimed and listeners fire even for keys that are never accessed again.
+     */
+    public UUIDExpiringMap<V> startSweeper(Duration interval) {
+        segments.startSweeper(interval, "FemUtils UUIDExpiringMap Sweeper");
+        return this;
+    }
+
+    public V get(UUID key) {
+        return segments.get(key);
+    }
+
+    /**
+     * Same as {@link #get(UUID)} without needing a {@link UUID} instance.
+     */
+    public V get(long most, long least) {
+        ExpiringSegments.Segment<UUID, V, Entry<V>> segment = segments.segment(UUIDObjectMap.hash(most, least));
+        long now = segments.now();
+        V value;
+        List<Entry<V>> expired;
+        synchronized (segment) {
+            segment.expire(segments.tick(now));
+            value = segment.live(((Table<V>) segment.table).map.get(most, least), now);
+            expired = segment.takeExpired();
+        }
+        segments.notifyExpired(expired);
+        return value;
+    }
+
+    public boolean containsKey(UUID key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Time left before {@code key} expires in milliseconds, 0 if it is absent or expired.
+     */
+    public long remainingMillis(UUID key) {
+        return segments.remainingMillis(key);
+    }
+
+    /**
+     * Puts with the default time to live.
+     *
+     * @return the previous live value, or null
+     */
+    public V put(UUID key, V value) {
+        return segments.put(key, value, true);
+    }
+
+    public V put(UUID key, V value, Duration ttl) {
+        return segments.put(key, value, ttl, true);
+    }
+
+    /**
+     * Puts only if there is no live value, e.g. to start a cooldown unless one is running.
+     *
+     * @return the existing live value, or null if the value was put
+     */
+    public V putIfAbsent(UUID key, V value, Duration ttl) {
+        return segments.put(key, value, ttl, false);
+    }
+
+    public V putIfAbsent(UUID key, V value) {
+        return segments.put(key, value, false);
+    }
+
+    public V remove(UUID key) {
+        return segments.remove(key);
+    }
+
+    /**
+     * Number of entries not yet cleaned up. Runs a cleanup first, so it is at most one tick stale.
+     */
+    public int size() {
+        return segments.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes every entry without notifying the listener.
+     */
+    public void clear() {
+        segments.clear();
+    }
+
+    /**
+     * Removes every expired entry and notifies the listener.
+     */
+    public void cleanUp() {
+        segments.cleanUp();
+    }
+
+    @Override
+    public void close() {
+        segments.close();
+    }
+
+    private static final class UUIDKeys<V> implements ExpiringSegments.Keys<UUID, V, Entry<V>> {
+        @Override
+        public ExpiringSegments.Table<UUID, Entry<V>> newTable() {
+            return new Table<>();
+        }
+
+        @Override
+        public int hash(UUID key) {
+            return UUIDObjectMap.hash(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        }
+
+        @Override
+        public Entry<V> newEntry(UUID key, V value, long deadline) {
+            return new Entry<>(key.getMostSignificantBits(), key.getLeastSignificantBits(), value, deadline);
+        }
+
+        @Override
+        public UUID key(Entry<V> entry) {
+            return new UUID(entry.most, entry.least);
+        }
+    }
+
+    private static final class Table<V> implements ExpiringSegments.Table<UUID, Entry<V>> {
+        private final UUIDObjectMap<Entry<V>> map = new UUIDObjectMap<>();
+
+        @Override
+        public Entry<V> get(UUID key) {
+            return map.get(key);
+        }
+
+        @Override
+        public void put(UUID key, Entry<V> entry) {
+            map.put(key, entry);
+        }
+
+        @Override
+        public Entry<V> remove(UUID key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public void unlink(Entry<V> entry) {
+            map.remove(entry.most, entry.least);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+    }
+
+    private static final class Entry<V> extends ExpiringSegments.Entry<V> {
+        final long most;
+        final long least;
+
+        Entry(long most, long least, V value, long deadline) {
+            super(value, deadline);
+            this.most = most;
+            this.least = least;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.dractical.femutils.core.collect;
+
+import com.dractical.femutils.core.check.Checks;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Open-addressing {@code UUID -> V} map for player-keyed data. Keys are stored as two longs,
+ * so lookups by {@code (most, least)} bits allocate nothing and never call {@link UUID#equals}.
+ * Null values are not allowed. Not thread-safe, see {@link ConcurrentUUIDObjectMap}.
+ */
+@SuppressWarnings({"unused", "unchecked"})
+public final class UUIDObjectMap<V> {
+    // most and least significant bits interleaved, slot i at 2i and 2i + 1
+    private long[] keys;
+    // a slot is in use iff its value is non-null
+    private Object[] values;
+    private int mask;
+    private int maxFill;
+    private int size;
+
+    public UUIDObjectMap() {
+        this(16);
+    }
+
+    public UUIDObjectMap(int expected) {
+        allocate(Hashing.tableSize(expected));
+    }
+
+    static int hash(long most, long least) {
+        return Hashing.mix(most ^ Long.rotateLeft(least, 32));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(UUID key) {
+        return get(key) != null;
+    }
+
+    public V get(UUID key) {
+        return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    public V get(long most, long least) {
+        int pos = hash(most, least) & mask;
+        Object v;
+        while ((v = values[pos]) != null) {
+            if (keys[pos << 1] == most && keys[(pos << 1) + 1] == least) return (V) v;
+            pos = (pos + 1) & mask;
+        }
+        return null;
+    }
+
+    public V getOrDefault(UUID key, V defaultValue) {
+        V v = get(key);
+        return v != null ? v : defaultValue;
+    }
+
+    /**
+     * @return the previous value, or null if there was none
+     */
+    public V put(UUID key, V value) {
+        Checks.notNull(value, "value");
+        long most = key.getMostSignificantBits();
+        long least = key.getLeastSignificantBits();
+        int pos = slot(most, least);
+        V old = (V) values[pos];
+        values[pos] = value;
+        if (old == null) {
+            keys[pos << 1] = most;
+            keys[(pos << 1) + 1] = least;
+            if (++size > maxFill) rehash(Hashing.grow(values.length));
+        }
+        return old;
+    }
+
+    public V computeIfAbsent(UUID key, Function<? super UUID, ? extends V> mapping) {
+        V existing = get(key);
+        if (existing != null) return existing;
+        V created = mapping.apply(key);
+        if (created != null) put(key, created);
+        return created;
+    }
+
+    /**
+     * @return the removed value, or null if there was none
+     */
+    public V remove(UUID key) {
+        return remove(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    public V remove(long most, long least) {
+        int pos = slot(most, least);
+        V old = (V) values[pos];
+        if (old == null) return null;
+        size--;
+        shiftKeys(pos);
+        return old;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Visits every entry. Allocates one {@link UUID} per entry, prefer {@link #forEachBits} in hot paths.
+     */
+    public void forEach(BiConsumer<? super UUID, ? super V> action) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) action.accept(new UUID(keys[i << 1], keys[(i << 1) + 1]), (V) values[i]);
+        }
+    }
+
+    public void forEachBits(BitsConsumer<? super V> action) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) action.accept(keys[i << 1], keys[(i << 1) + 1], (V) values[i]);
+        }
+    }
+
+    /**
+     * Boxed copy, e.g. for serialization.
+     */
+    public Map<UUID, V> toMap() {
+        Map<UUID, V> out = new LinkedHashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+        forEach(out::put);
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    /**
+     * Slot holding the key, or the free slot where it would be inserted.
+     */
+    private int slot(long most, long least) {
+        int pos = hash(most, least) & mask;
+        while (values[pos] != null) {
+            if (keys[pos << 1] == most && keys[(pos << 1) + 1] == least) return pos;
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    private void shiftKeys(int pos) {
+        int last;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            while (true) {
+                if (values[pos] == null) {
+                    values[last] = null;
+                    return;
+                }
+                int home = hash(keys[pos << 1], keys[(pos << 1) + 1]) & mask;
+                if (Hashing.canShift(last, home, pos)) break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last << 1] = keys[pos << 1];
+            keys[(last << 1) + 1] = keys[(pos << 1) + 1];
+            values[last] = values[pos];
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize << 1];
+        values = new Object[tableSize];
+        mask = tableSize - 1;
+        maxFill = Hashing.maxFill(tableSize);
+    }
+
+    private void rehash(int tableSize) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(tableSize);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+            long most = oldKeys[i << 1];
+            long least = oldKeys[(i << 1) + 1];
+            int pos = hash(most, least) & mask;
+            while (values[pos] != null) pos = (pos + 1) & mask;
+            keys[pos << 1] = most;
+            keys[(pos << 1) + 1] = least;
+            values[pos] = oldValues[i];
+        }
+    }
+
+    @FunctionalInterface
+    public interface BitsConsumer<V> {
+        void accept(long most, long least, V value);
+    }
+}
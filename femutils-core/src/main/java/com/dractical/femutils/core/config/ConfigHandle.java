@@ -2,10 +2,12 @@
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.function.Consumer;
-import java.util.function.Supplier;
+import java.util.concurrent.Executor;
+import java.util.function.*;
 
 @SuppressWarnings("unused")
 public final class ConfigHandle<T> {
@@ -14,6 +16,7 @@
     private final Supplier<T> defaults;
     private final Engine engine;
     private final List<Consumer<T>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<T>> views = new CopyOnWriteArrayList<>();
     private volatile T value;
 
     public ConfigHandle(Path path, Class<T> type, Supplier<T> defaults, Engine engine) throws IOException {
@@ -30,8 +33,17 @@ public T get() {
 
     public void reload() throws IOException {
         T newVal = engine.load(path, type, defaults);
-        this.value = newVal;
-        for (Consumer<T> l : listeners) l.accept(newVal);
+        publish(newVal);
+        fireReload(newVal);
+    }
+
+    /**
+     * Reloads on the calling thread, publishes the new value, then runs the listeners on the executor.
+     */
+    public void reload(Executor listenerExecutor) throws IOException {
+        T newVal = engine.load(path, type, defaults);
+        publish(newVal);
+        listenerExecutor.execute(() -> fireReload(newVal));
     }
 
     public void save() throws IOException {
@@ -39,7 +51,7 @@ public void save() throws IOException {
     }
 
     public void setAndSave(T newValue) throws IOException {
-        this.value = newValue;
+        publish(newValue);
         save();
     }
 
@@ -51,6 +63,60 @@ public Path path() {
         return path;
     }
 
+    /**
+     * Value derived from the config, recomputed on every load before reload listeners run.
+     */
+    public <V> ConfigView<V> view(Function<? super T, ? extends V> derive) {
+        ConfigView<V> view = new ConfigView<>(derive);
+        view.refresh(value);
+        views.add(view::refresh);
+        return view;
+    }
+
+    /**
+     * Immutable copy of a map section, rebuilt on every load. Null keys and values are dropped.
+     */
+    public <K, V> ConfigView<Map<K, V>> keyed(Function<? super T, ? extends Map<K, V>> section) {
+        return view(config -> {
+            Map<K, V> source = section.apply(config);
+            if (source == null) return Map.of();
+            Map<K, V> copy = new HashMap<>(source.size() * 2);
+            for (Map.Entry<K, V> e : source.entrySet()) {
+                if (e.getKey() != null && e.getValue() != null) copy.put(e.getKey(), e.getValue());
+            }
+            return Map.copyOf(copy);
+        });
+    }
+
+    /**
+     * Flattened int per enum constant, for reads without boxing or hashing.
+     */
+    public <E extends Enum<E>> ConfigView.IntTable<E> intTable(Class<E> keys, ToIntBiFunction<? super T, E> value) {
+        ConfigView.IntTable<E> table = new ConfigView.IntTable<>(keys, value);
+        table.refresh(this.value);
+        views.add(table::refresh);
+        return table;
+    }
+
+    /**
+     * Flattened double per enum constant, for reads without boxing or hashing.
+     */
+    public <E extends Enum<E>> ConfigView.DoubleTable<E> doubleTable(Class<E> keys, ToDoubleBiFunction<? super T, E> value) {
+        ConfigView.DoubleTable<E> table = new ConfigView.DoubleTable<>(keys, value);
+        table.refresh(this.value);
+        views.add(table::refresh);
+        return table;
+    }
+
+    private void publish(T newVal) {
+        this.value = newVal;
+        for (Consumer<T> v : views) v.accept(newVal);
+    }
+
+    private void fireReload(T newVal) {
+        for (Consumer<T> l : listeners) l.accept(newVal);
+    }
+
     public interface Engine {
         <T> T load(Path path, Class<T> type, Supplier<T> defaults) throws IOException;
 
@@ -0,0 +1,85 @@
+package com.dractical.femutils.core.config;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleBiFunction;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Value derived from a config once per load, see {@link ConfigHandle#view(Function)}.
+ * Reads are a single volatile field access.
+ */
+@SuppressWarnings("unused")
+public final class ConfigView<V> implements Supplier<V> {
+    private final Function<Object, ? extends V> derive;
+    private volatile V value;
+
+    @SuppressWarnings("unchecked")
+    ConfigView(Function<?, ? extends V> derive) {
+        this.derive = (Function<Object, ? extends V>) Objects.requireNonNull(derive, "derive");
+    }
+
+    @Override
+    public V get() {
+        return value;
+    }
+
+    void refresh(Object root) {
+        value = derive.apply(root);
+    }
+
+    /**
+     * Int per enum constant, indexed by ordinal, see {@link ConfigHandle#intTable}.
+     */
+    public static final class IntTable<E extends Enum<E>> {
+        private final E[] keys;
+        private final ToIntBiFunction<Object, E> derive;
+        private volatile int[] values;
+
+        @SuppressWarnings("unchecked")
+        IntTable(Class<E> keys, ToIntBiFunction<?, E> derive) {
+            this.keys = Objects.requireNonNull(keys, "keys").getEnumConstants();
+            this.derive = (ToIntBiFunction<Object, E>) Objects.requireNonNull(derive, "derive");
+        }
+
+        public int get(E key) {
+            return values[key.ordinal()];
+        }
+
+        void refresh(Object root) {
+            int[] fresh = new int[keys.length];
+            for (E key : keys) {
+                fresh[key.ordinal()] = derive.applyAsInt(root, key);
+            }
+            values = fresh;
+        }
+    }
+
+    /**
+     * Double per enum constant, indexed by ordinal, see {@link ConfigHandle#doubleTable}.
+     */
+    public static final class DoubleTable<E extends Enum<E>> {
+        private final E[] keys;
+        private final ToDoubleBiFunction<Object, E> derive;
+        private volatile double[] values;
+
+        @SuppressWarnings("unchecked")
+        DoubleTable(Class<E> keys, ToDoubleBiFunction<?, E> derive) {
+            this.keys = Objects.requireNonNull(keys, "keys").getEnumConstants();
+            this.derive = (ToDoubleBiFunction<Object, E>) Objects.requireNonNull(derive, "derive");
+        }
+
+        public double get(E key) {
+            return values[key.ordinal()];
+        }
+
+        void refresh(Object root) {
+            double[] fresh = new double[keys.length];
+            for (E key : keys) {
+                fresh[key.ordinal()] = derive.applyAsDouble(root, key);
+            }
+            values = fresh;
+        }
+    }
+}
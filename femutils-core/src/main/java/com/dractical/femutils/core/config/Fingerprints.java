@@ -0,0 +1,162 @@
+package com.dractical.femutils.core.config;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the content hash of files from their last load or save, so engines can skip
+ * writing bytes that are already on disk. A file touched by someone else since then
+ * (different size or modification time) never counts as unchanged.
+ */
+@SuppressWarnings("unused")
+public final class Fingerprints {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    private final Map<Path, Stamp> stamps = new ConcurrentHashMap<>();
+    private final LongAdder skipped = new LongAdder();
+
+    /**
+     * XXH64 of the bytes with seed 0.
+     */
+    public static long hash(byte[] data) {
+        Objects.requireNonNull(data, "data");
+        int len = data.length;
+        int p = 0;
+        long h;
+        if (len >= 32) {
+            long v1 = P1 + P2;
+            long v2 = P2;
+            long v3 = 0L;
+            long v4 = -P1;
+            int limit = len - 32;
+            do {
+                v1 = round(v1, (long) LONGS.get(data, p));
+                v2 = round(v2, (long) LONGS.get(data, p + 8));
+                v3 = round(v3, (long) LONGS.get(data, p + 16));
+                v4 = round(v4, (long) LONGS.get(data, p + 24));
+                p += 32;
+            } while (p <= limit);
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = P5;
+        }
+        h += len;
+        while (p + 8 <= len) {
+            h ^= round(0L, (long) LONGS.get(data, p));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+            p += 8;
+        }
+        if (p + 4 <= len) {
+            h ^= ((int) INTS.get(data, p) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            p += 4;
+        }
+        while (p < len) {
+            h ^= (data[p] & 0xFFL) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+            p++;
+        }
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    /**
+     * True if the file still holds exactly the content last recorded with this hash.
+     * Counts as a skipped write when true.
+     */
+    public boolean unchanged(Path path, long hash) throws IOException {
+        Stamp stamp = stamps.get(key(path));
+        if (stamp == null || stamp.hash != hash || !matchesDisk(path, stamp)) {
+            return false;
+        }
+        skipped.increment();
+        return true;
+    }
+
+    /**
+     * True if the last recorded load or save of the file had this hash, even if the file was touched since.
+     */
+    public boolean matchesRecorded(Path path, long hash) {
+        Stamp stamp = stamps.get(key(path));
+        return stamp != null && stamp.hash == hash;
+    }
+
+    /**
+     * True if the file was not modified since its last recorded load or save.
+     */
+    public boolean isCurrent(Path path) throws IOException {
+        Stamp stamp = stamps.get(key(path));
+        return stamp != null && matchesDisk(path, stamp);
+    }
+
+    /**
+     * Records the hash of what was just read from or written to the file.
+     */
+    public void record(Path path, long hash) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        stamps.put(key(path), new Stamp(hash, attrs.size(), attrs.lastModifiedTime().toMillis()));
+    }
+
+    public void forget(Path path) {
+        stamps.remove(key(path));
+    }
+
+    /**
+     * Number of writes skipped because the content was unchanged.
+     */
+    public long skippedWrites() {
+        return skipped.sum();
+    }
+
+    private static boolean matchesDisk(Path path, Stamp stamp) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        return attrs.size() == stamp.size && attrs.lastModifiedTime().toMillis() == stamp.modified;
+    }
+
+    private static Path key(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long merge(long acc, long value) {
+        acc ^= round(0L, value);
+        return acc * P1 + P4;
+    }
+
+    private record Stamp(long hash, long size, long modified) {
+    }
+}
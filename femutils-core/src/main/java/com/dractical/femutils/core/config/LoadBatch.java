@@ -0,0 +1,163 @@
+package com.dractical.femutils.core.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Loads several handles concurrently, e.g. every config and data file of a plugin during startup.
+ * Loaders are registered with {@link #add} and all run by {@link #run()}. The first failure cancels
+ * loaders still running, and every failure seen so far is reported as one exception.
+ */
+@SuppressWarnings("unused")
+public final class LoadBatch {
+    private final List<Entry<?>> entries = new ArrayList<>();
+    private boolean ran;
+
+    /**
+     * Registers a loader, its result is available from the returned entry once the batch ran.
+     */
+    public synchronized <T> Entry<T> add(String name, Callable<? extends T> loader) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(loader, "loader");
+        if (ran) {
+            throw new IllegalStateException("Batch already ran");
+        }
+        Entry<T> entry = new Entry<>(name, loader);
+        entries.add(entry);
+        return entry;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Runs every loader on its own virtual thread and waits for all of them.
+     */
+    public Report run() throws IOException {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return run(executor);
+        }
+    }
+
+    /**
+     * Runs every loader on the executor and waits for all of them.
+     */
+    public Report run(ExecutorService executor) throws IOException {
+        Objects.requireNonNull(executor, "executor");
+        List<Entry<?>> snapshot;
+        synchronized (this) {
+            if (ran) {
+                throw new IllegalStateException("Batch already ran");
+            }
+            ran = true;
+            snapshot = List.copyOf(entries);
+        }
+
+        long start = System.nanoTime();
+        CompletionService<Entry<?>> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Entry<?>>> futures = new ArrayList<>(snapshot.size());
+        for (Entry<?> entry : snapshot) {
+            futures.add(completion.submit(() -> {
+                entry.load();
+                return entry;
+            }));
+        }
+
+        List<Throwable> failures = new ArrayList<>();
+        try {
+            for (int i = 0; i < snapshot.size(); i++) {
+                Future<Entry<?>> done = completion.take();
+                try {
+                    done.get();
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.add(e);
+        }
+
+        if (!failures.isEmpty()) {
+            for (Future<Entry<?>> future : futures) {
+                future.cancel(true);
+            }
+            // collect failures that finished before the cancellation
+            for (Entry<?> entry : snapshot) {
+                if (entry.failure != null && !failures.contains(entry.failure)) {
+                    failures.add(entry.failure);
+                }
+            }
+            IOException error = new IOException("Failed to load " + failures.size() + " of " + snapshot.size() + " files");
+            for (Throwable failure : failures) {
+                error.addSuppressed(failure);
+            }
+            throw error;
+        }
+
+        Map<String, Duration> timings = new LinkedHashMap<>();
+        for (Entry<?> entry : snapshot) {
+            timings.put(entry.name, Duration.ofNanos(entry.nanos));
+        }
+        return new Report(Collections.unmodifiableMap(timings), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Result of one registered loader.
+     */
+    public static final class Entry<T> implements Supplier<T> {
+        private final String name;
+        private final Callable<? extends T> loader;
+        private volatile T value;
+        private volatile Throwable failure;
+        private volatile long nanos;
+
+        private Entry(String name, Callable<? extends T> loader) {
+            this.name = name;
+            this.loader = loader;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * The loaded value, or null if the batch has not run.
+         */
+        @Override
+        public T get() {
+            return value;
+        }
+
+        private void load() throws Exception {
+            long start = System.nanoTime();
+            try {
+                value = loader.call();
+            } catch (Exception e) {
+                Exception wrapped = new IOException("Failed to load " + name + ": " + e.getMessage(), e);
+                failure = wrapped;
+                throw wrapped;
+            } finally {
+                nanos = System.nanoTime() - start;
+            }
+        }
+    }
+
+    /**
+     * Load time of every entry by name, and the wall time of the whole batch.
+     */
+    public record Report(Map<String, Duration> timings, Duration total) {
+        public Duration slowest() {
+            Duration max = Duration.ZERO;
+            for (Duration d : timings.values()) {
+                if (d.compareTo(max) > 0) max = d;
+            }
+            return max;
+        }
+    }
+}
@@ -1,17 +1,48 @@
 package com.dractical.femutils.core.config;
 
+import com.dractical.femutils.core.collect.*;
+
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @SuppressWarnings({"unchecked", "rawtypes"})
 public final class ReflectMapper {
     private final TypeRegistry registry;
+    private final Map<Object, Map<?, ?>> internCaches = new ConcurrentHashMap<>();
 
     public ReflectMapper(TypeRegistry registry) {
         this.registry = registry;
     }
 
+    /**
+     * Whether the type is one of the primitive collections from {@code core.collect}, which are
+     * mapped natively: maps become trees of boxed entries, lists and sets become lists.
+     */
+    public static boolean isPrimitiveCollection(Class<?> type) {
+        return type == IntIntMap.class
+                || type == LongObjectMap.class
+                || type == ObjectIntMap.class
+                || type == UUIDObjectMap.class
+                || type == ConcurrentUUIDObjectMap.class
+                || type == IntArrayList.class
+                || type == LongHashSet.class;
+    }
+
+    /**
+     * Thread-safe cache owned by {@code owner}, usually a serializer, that lives as long as this mapper.
+     * Serializers use it to resolve values that repeat across trees to one shared instance.
+     */
+    public <K, V> Map<K, V> internCache(Object owner) {
+        Map<?, ?> cache = internCaches.get(owner);
+        if (cache == null) {
+            cache = internCaches.computeIfAbsent(owner, o -> new ConcurrentHashMap<>());
+        }
+        return (Map<K, V>) cache;
+    }
+
     public <T> T toObject(Object raw, Class<T> type) {
         if (type.isPrimitive()) {
             if (raw == null) {
@@ -48,6 +79,19 @@ public <T> T toObject(Object raw, Class<T> type) {
             return null;
         }
 
+        if (type == String.class && !(raw instanceof String)) {
+            return (T) raw.toString();
+        }
+
+        if (raw instanceof Number num && !type.isInstance(raw)) {
+            if (type == Integer.class) return (T) Integer.valueOf(num.intValue());
+            if (type == Long.class) return (T) Long.valueOf(num.longValue());
+            if (type == Double.class) return (T) Double.valueOf(num.doubleValue());
+            if (type == Float.class) return (T) Float.valueOf(num.floatValue());
+            if (type == Short.class) return (T) Short.valueOf(num.shortValue());
+            if (type == Byte.class) return (T) Byte.valueOf(num.byteValue());
+        }
+
         if (type == Boolean.class
                 || type == Byte.class
                 || type == Short.class
@@ -82,6 +126,9 @@ public <T> T toObject(Object raw, Class<T> type) {
             return ser.deserialize(raw, this, type);
         }
 
+        if (isPrimitiveCollection(type)) {
+            return (T) primitiveCollection(raw, type, Object.class);
+        }
         if (List.class.isAssignableFrom(type)) {
             return (T) list(raw, Object.class);
         }
@@ -95,6 +142,39 @@ public <T> T toObject(Object raw, Class<T> type) {
         return fromPojo(raw, type);
     }
 
+    /**
+     * Like {@link #toObject(Object, Class)}, but also converts the elements of parameterized
+     * lists, sets and maps, e.g. {@code Map<String, List<Section>>}.
+     */
+    public Object toObject(Object raw, Type type) {
+        if (type instanceof Class<?> c) {
+            if (raw == null && List.class.isAssignableFrom(c)) return List.of();
+            if (raw == null && Map.class.isAssignableFrom(c)) return Map.of();
+            if (raw == null && isPrimitiveCollection(c)) return primitiveCollection(null, c, Object.class);
+            return toObject(raw, c);
+        }
+        if (type instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> rawType) {
+            Type[] args = pt.getActualTypeArguments();
+            if (isPrimitiveCollection(rawType) && args.length == 1) {
+                return primitiveCollection(raw, rawType, args[0]);
+            }
+            if (Map.class.isAssignableFrom(rawType) && args.length == 2) {
+                return map(raw, args[0], args[1]);
+            }
+            if (Set.class.isAssignableFrom(rawType) && args.length == 1) {
+                return raw == null ? Set.of() : new LinkedHashSet<>(list(raw, args[0]));
+            }
+            if (Collection.class.isAssignableFrom(rawType) && args.length == 1) {
+                return list(raw, args[0]);
+            }
+            return toObject(raw, rawType);
+        }
+        if (type instanceof WildcardType wt) {
+            return toObject(raw, wt.getUpperBounds()[0]);
+        }
+        return raw;
+    }
+
     public Object toTree(Object obj) {
         if (obj == null) return null;
         Class<?> rawType = obj.getClass();
@@ -105,6 +185,7 @@ public Object toTree(Object obj) {
         if (isSimpleType(rawType)) return obj;
         if (rawType.isEnum()) return ((Enum<?>) obj).name();
 
+        if (isPrimitiveCollection(rawType)) return primitiveCollectionToTree(obj);
         if (obj instanceof Map<?, ?> map) return mapToTree(map);
         if (obj instanceof Iterable<?> it) return iterableToTree(it);
         if (rawType.isArray()) return arrayToTree(obj);
@@ -122,24 +203,7 @@ private <T> T fromRecord(Object raw, Class<T> type) {
 
         for (int i = 0; i < props.size(); i++) {
             ClassIntrospector.RecordProperty p = props.get(i);
-            Object rawVal = map.get(p.name());
-            Class<?> compType = p.rawType();
-            Object converted;
-            if (List.class.isAssignableFrom(compType)) {
-                Class<?> elemType = extractListElemType(p.genericType());
-                converted = list(rawVal, elemType);
-            } else if (Map.class.isAssignableFrom(compType)) {
-                Class<?> keyType = Object.class, valType = Object.class;
-                if (p.genericType() instanceof ParameterizedType pt) {
-                    Type[] a = pt.getActualTypeArguments();
-                    if (a[0] instanceof Class<?> c0) keyType = c0;
-                    if (a[1] instanceof Class<?> c1) valType = c1;
-                }
-                converted = map(rawVal, keyType, valType);
-            } else {
-                converted = toObject(rawVal, compType);
-            }
-            args[i] = converted;
+            args[i] = toObject(map.get(p.name()), p.genericType());
         }
 
         try {
@@ -164,7 +228,7 @@ private <T> T fromPojo(Object raw, Class<T> type) {
         }
 
         for (ClassIntrospector.PojoField f : meta.pojoFields()) {
-            Object val = toObject(map.get(f.name()), f.rawType());
+            Object val = toObject(map.get(f.name()), f.genericType());
             if (f.handle() != null) {
                 f.handle().set(instance, val);
             } else {
@@ -221,6 +285,26 @@ public <T> List<T> list(Object raw, Class<T> elementType) {
         return out;
     }
 
+    private List<Object> list(Object raw, Type elementType) {
+        if (raw == null) return List.of();
+        if (!(raw instanceof List<?> rawList)) throw new IllegalArgumentException("Expected list");
+        List<Object> out = new ArrayList<>(rawList.size());
+        for (Object o : rawList) {
+            out.add(toObject(o, elementType));
+        }
+        return out;
+    }
+
+    private Map<Object, Object> map(Object raw, Type keyType, Type valType) {
+        if (raw == null) return Map.of();
+        if (!(raw instanceof Map<?, ?> rawMap)) throw new IllegalArgumentException("Expected map");
+        Map<Object, Object> out = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> e : rawMap.entrySet()) {
+            out.put(toObject(e.getKey(), keyType), toObject(e.getValue(), valType));
+        }
+        return out;
+    }
+
     public <K, V> Map<K, V> map(Object raw, Class<K> keyType, Class<V> valType) {
         if (raw == null) return Map.of();
         if (!(raw instanceof Map<?, ?> rawMap)) throw new IllegalArgumentException("Expected map");
@@ -233,6 +317,87 @@ public <K, V> Map<K, V> map(Object raw, Class<K> keyType, Class<V> valType) {
         return out;
     }
 
+    private Object primitiveCollection(Object raw, Class<?> type, Type elementType) {
+        if (type == IntArrayList.class || type == LongHashSet.class) {
+            if (raw != null && !(raw instanceof List<?>)) throw new IllegalArgumentException("Expected list");
+            List<?> list = raw == null ? List.of() : (List<?>) raw;
+            if (type == IntArrayList.class) {
+                IntArrayList out = new IntArrayList(list.size());
+                for (Object o : list) out.add((int) number(o));
+                return out;
+            }
+            LongHashSet out = new LongHashSet(list.size());
+            for (Object o : list) out.add(number(o));
+            return out;
+        }
+        if (raw != null && !(raw instanceof Map<?, ?>)) throw new IllegalArgumentException("Expected map");
+        Map<?, ?> map = raw == null ? Map.of() : (Map<?, ?>) raw;
+        if (type == IntIntMap.class) {
+            IntIntMap out = new IntIntMap(map.size());
+            map.forEach((k, v) -> out.put((int) number(k), (int) number(v)));
+            return out;
+        }
+        if (type == ObjectIntMap.class) {
+            ObjectIntMap<Object> out = new ObjectIntMap<>(map.size());
+            map.forEach((k, v) -> out.put(toObject(k, elementType), (int) number(v)));
+            return out;
+        }
+        if (type == LongObjectMap.class) {
+            LongObjectMap<Object> out = new LongObjectMap<>(map.size());
+            map.forEach((k, v) -> {
+                Object value = toObject(v, elementType);
+                if (value != null) out.put(number(k), value);
+            });
+            return out;
+        }
+        if (type == UUIDObjectMap.class) {
+            UUIDObjectMap<Object> out = new UUIDObjectMap<>(map.size());
+            map.forEach((k, v) -> {
+                Object value = toObject(v, elementType);
+                if (value != null) out.put(UUID.fromString(k.toString()), value);
+            });
+            return out;
+        }
+        ConcurrentUUIDObjectMap<Object> out = new ConcurrentUUIDObjectMap<>(map.size());
+        map.forEach((k, v) -> {
+            Object value = toObject(v, elementType);
+            if (value != null) out.put(UUID.fromString(k.toString()), value);
+        });
+        return out;
+    }
+
+    private Object primitiveCollectionToTree(Object obj) {
+        Map<Object, Object> out = new LinkedHashMap<>();
+        switch (obj) {
+            case IntArrayList list -> {
+                return list.toList();
+            }
+            case LongHashSet set -> {
+                return set.toList();
+            }
+            case IntIntMap map -> map.forEach(out::put);
+            case ObjectIntMap<?> map -> map.forEach((k, v) -> out.put(keyToTree(k), v));
+            case LongObjectMap<?> map -> map.forEach((k, v) -> out.put(k, toTree(v)));
+            case UUIDObjectMap<?> map -> map.forEach((k, v) -> out.put(k.toString(), toTree(v)));
+            case ConcurrentUUIDObjectMap<?> map -> map.forEach((k, v) -> out.put(k.toString(), toTree(v)));
+            default -> throw new IllegalArgumentException("Not a primitive collection: " + obj.getClass().getName());
+        }
+        return out;
+    }
+
+    private Object keyToTree(Object key) {
+        if (key instanceof Enum<?> e) return e.name();
+        if (isSimpleType(key.getClass())) return key;
+        Object tree = toTree(key);
+        return tree instanceof Map<?, ?> || tree instanceof List<?> ? key.toString() : tree;
+    }
+
+    private static long number(Object raw) {
+        if (raw instanceof Number n) return n.longValue();
+        if (raw == null) throw new IllegalArgumentException("Expected number, got null");
+        return Long.parseLong(raw.toString().trim());
+    }
+
     private Object iterableToTree(Iterable<?> iterable) {
         List<Object> out = new ArrayList<>();
         for (Object element : iterable) {
@@ -244,7 +409,8 @@ private Object iterableToTree(Iterable<?> iterable) {
     private Object mapToTree(Map<?, ?> map) {
         Map<Object, Object> out = new LinkedHashMap<>(map.size());
         for (Map.Entry<?, ?> entry : map.entrySet()) {
-            out.put(entry.getKey(), toTree(entry.getValue()));
+            Object key = entry.getKey() instanceof Enum<?> e ? e.name() : entry.getKey();
+            out.put(key, toTree(entry.getValue()));
         }
         return out;
     }
@@ -265,12 +431,4 @@ private boolean isSimpleType(Class<?> type) {
                 || Character.class.equals(type)
                 || String.class.equals(type);
     }
-
-    private Class<?> extractListElemType(Type t) {
-        if (t instanceof ParameterizedType pt) {
-            Type arg = pt.getActualTypeArguments()[0];
-            if (arg instanceof Class<?> c) return c;
-        }
-        return Object.class;
-    }
 }
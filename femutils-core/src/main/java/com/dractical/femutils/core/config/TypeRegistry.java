@@ -1,16 +1,51 @@
 package com.dractical.femutils.core.config;
 
+import com.dractical.femutils.core.time.DurationUtils;
+
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public final class TypeRegistry {
+    /**
+     * Registered by default. Reads strings like "1h30m" via {@link DurationUtils#parse} and plain numbers
+     * as seconds, writes the compact {@link DurationUtils#format} form. Negative durations cannot be saved.
+     */
+    public static final TypeSerializer<Duration> DURATION = new TypeSerializer<>() {
+        @Override
+        public Duration deserialize(Object raw, ReflectMapper ctx, Class<Duration> type) {
+            if (raw == null) return Duration.ZERO;
+            if (raw instanceof Duration d) return d;
+            if (raw instanceof Number n) return Duration.ofSeconds(n.longValue());
+            return DurationUtils.parse(raw.toString()).getOrThrow();
+        }
+
+        @Override
+        public Object serialize(Duration value, ReflectMapper ctx) {
+            return DurationUtils.format(value);
+        }
+    };
+
     private final Map<Class<?>, TypeSerializer<?>> exact = new LinkedHashMap<>();
     private final Map<Class<?>, TypeSerializer<?>> cache = new ConcurrentHashMap<>();
+    private volatile int generation;
+
+    public TypeRegistry() {
+        register(Duration.class, DURATION);
+    }
 
     public <T> void register(Class<T> type, TypeSerializer<T> ser) {
         exact.put(type, ser);
         cache.clear();
+        generation++;
+    }
+
+    /**
+     * Changes whenever a serializer is registered, for callers that cache lookup results.
+     */
+    public int generation() {
+        return generation;
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,375 @@
+package com.dractical.femutils.core.data;
+
+import com.dractical.femutils.core.config.ClassIntrospector;
+import com.dractical.femutils.core.config.ReflectMapper;
+import com.dractical.femutils.core.config.TypeRegistry;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.BsonTypeClassMap;
+import org.bson.codecs.BsonTypeCodecMap;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.Decimal128;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BSON codec for records and POJOs built from {@link ClassIntrospector} metadata.
+ * Values are streamed straight between the object and the BSON reader/writer. Types with a
+ * {@link TypeRegistry} serializer go through their serialized tree, like in {@link ReflectMapper}.
+ * The {@code _id} field is skipped on decode, upserts take it from the filter.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+final class BeanCodec<T> implements Codec<T> {
+    private static final Map<Class<?>, Map<String, Integer>> INDEXES = new ConcurrentHashMap<>();
+
+    private final Class<T> type;
+    private final TypeRegistry registry;
+    private final ReflectMapper mapper;
+    private final CodecRegistry fallback;
+    private final BsonTypeCodecMap treeCodecs;
+
+    BeanCodec(Class<T> type, TypeRegistry registry, ReflectMapper mapper, CodecRegistry fallback) {
+        this.type = type;
+        this.registry = registry;
+        this.mapper = mapper;
+        this.fallback = fallback;
+        this.treeCodecs = new BsonTypeCodecMap(new BsonTypeClassMap(), fallback);
+    }
+
+    /**
+     * True for records and POJOs this codec can handle. Versioned types need their raw tree
+     * for migrations and are left to the document path.
+     */
+    static boolean supports(Class<?> type, TypeRegistry registry) {
+        if (type.isAnnotationPresent(Version.class) || registry.find(type) != null) {
+            return false;
+        }
+        if (!isBean(type)) {
+            return false;
+        }
+        return type.isRecord() || ClassIntrospector.get(type).ctor() != null;
+    }
+
+    @Override
+    public Class<T> getEncoderClass() {
+        return type;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, T value, EncoderContext ctx) {
+        writeBean(writer, value, ctx);
+    }
+
+    @Override
+    public T decode(BsonReader reader, DecoderContext ctx) {
+        return (T) readBean(reader, type, ctx);
+    }
+
+    private void writeBean(BsonWriter writer, Object bean, EncoderContext ctx) {
+        ClassIntrospector.ClassMeta meta = ClassIntrospector.get(bean.getClass());
+        writer.writeStartDocument();
+        if (meta.isRecord()) {
+            for (ClassIntrospector.RecordProperty p : meta.recordProps()) {
+                Object value;
+                try {
+                    value = p.getter().invoke(bean);
+                } catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+                writer.writeName(p.name());
+                writeValue(writer, value, ctx);
+            }
+        } else {
+            for (ClassIntrospector.PojoField f : meta.pojoFields()) {
+                writer.writeName(f.name());
+                writeValue(writer, get(f, bean), ctx);
+            }
+        }
+        writer.writeEndDocument();
+    }
+
+    private void writeValue(BsonWriter writer, Object value, EncoderContext ctx) {
+        if (value == null) {
+            writer.writeNull();
+            return;
+        }
+        Class<?> cls = value.getClass();
+        if (registry.find(cls) != null) {
+            writeTree(writer, mapper.toTree(value), ctx);
+        } else if (cls.isEnum()) {
+            writer.writeString(((Enum<?>) value).name());
+        } else if (value instanceof Map<?, ?> map) {
+            writer.writeStartDocument();
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                writer.writeName(e.getKey() instanceof Enum<?> k ? k.name() : String.valueOf(e.getKey()));
+                writeValue(writer, e.getValue(), ctx);
+            }
+            writer.writeEndDocument();
+        } else if (value instanceof Iterable<?> iterable) {
+            writer.writeStartArray();
+            for (Object element : iterable) {
+                writeValue(writer, element, ctx);
+            }
+            writer.writeEndArray();
+        } else if (cls.isArray()) {
+            writer.writeStartArray();
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                writeValue(writer, Array.get(value, i), ctx);
+            }
+            writer.writeEndArray();
+        } else if (isBean(cls)) {
+            writeBean(writer, value, ctx);
+        } else {
+            writeTree(writer, value, ctx);
+        }
+    }
+
+    /**
+     * Writes a plain tree of maps, lists and scalars, as produced by {@link ReflectMapper#toTree}.
+     */
+    private void writeTree(BsonWriter writer, Object tree, EncoderContext ctx) {
+        switch (tree) {
+            case null -> writer.writeNull();
+            case String s -> writer.writeString(s);
+            case Integer i -> writer.writeInt32(i);
+            case Short s -> writer.writeInt32(s);
+            case Byte b -> writer.writeInt32(b);
+            case Long l -> writer.writeInt64(l);
+            case Double d -> writer.writeDouble(d);
+            case Float f -> writer.writeDouble(f);
+            case Boolean b -> writer.writeBoolean(b);
+            case Character c -> writer.writeString(c.toString());
+            case BigDecimal d -> writer.writeDecimal128(new Decimal128(d));
+            case Enum<?> e -> writer.writeString(e.name());
+            case Map<?, ?> map -> {
+                writer.writeStartDocument();
+                for (Map.Entry<?, ?> e : map.entrySet()) {
+                    writer.writeName(String.valueOf(e.getKey()));
+                    writeTree(writer, e.getValue(), ctx);
+                }
+                writer.writeEndDocument();
+            }
+            case Iterable<?> iterable -> {
+                writer.writeStartArray();
+                for (Object element : iterable) {
+                    writeTree(writer, element, ctx);
+                }
+                writer.writeEndArray();
+            }
+            default -> ctx.encodeWithChildContext((Codec) fallback.get(tree.getClass()), writer, tree);
+        }
+    }
+
+    private Object readBean(BsonReader reader, Class<?> beanType, DecoderContext ctx) {
+        ClassIntrospector.ClassMeta meta = ClassIntrospector.get(beanType);
+        Map<String, Integer> index = INDEXES.computeIfAbsent(beanType, BeanCodec::buildIndex);
+        int size = meta.isRecord() ? meta.recordProps().size() : meta.pojoFields().size();
+        Object[] values = new Object[size];
+        boolean[] present = new boolean[size];
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            Integer slot = index.get(reader.readName());
+            if (slot == null) {
+                reader.skipValue();
+                continue;
+            }
+            Type generic = meta.isRecord() ? meta.recordProps().get(slot).genericType() : meta.pojoFields().get(slot).genericType();
+            values[slot] = readValue(reader, generic, ctx);
+            present[slot] = true;
+        }
+        reader.readEndDocument();
+
+        try {
+            if (meta.isRecord()) {
+                for (int i = 0; i < size; i++) {
+                    if (!present[i]) values[i] = mapper.toObject(null, meta.recordProps().get(i).genericType());
+                }
+                return meta.ctor().newInstance(values);
+            }
+            if (meta.ctor() == null) {
+                throw new IllegalStateException("No no-arg constructor for " + beanType.getName());
+            }
+            Object instance = meta.ctor().newInstance();
+            for (int i = 0; i < size; i++) {
+                ClassIntrospector.PojoField f = meta.pojoFields().get(i);
+                set(f, instance, present[i] ? values[i] : mapper.toObject(null, f.genericType()));
+            }
+            return instance;
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Object readValue(BsonReader reader, Type type, DecoderContext ctx) {
+        Class<?> raw = rawClass(type);
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return mapper.toObject(null, type);
+        }
+        if (registry.find(raw) != null) {
+            return mapper.toObject(readTree(reader, ctx), type);
+        }
+        if (type instanceof ParameterizedType pt) {
+            Type[] args = pt.getActualTypeArguments();
+            if (Map.class.isAssignableFrom(raw) && args.length == 2 && reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+                Map<Object, Object> out = new LinkedHashMap<>();
+                reader.readStartDocument();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    Object key = mapper.toObject(reader.readName(), args[0]);
+                    out.put(key, readValue(reader, args[1], ctx));
+                }
+                reader.readEndDocument();
+                return out;
+            }
+            if (Collection.class.isAssignableFrom(raw) && args.length == 1 && reader.getCurrentBsonType() == BsonType.ARRAY) {
+                Collection<Object> out = Set.class.isAssignableFrom(raw) ? new LinkedHashSet<>() : new ArrayList<>();
+                reader.readStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    out.add(readValue(reader, args[0], ctx));
+                }
+                reader.readEndArray();
+                return out;
+            }
+        }
+        if (isBean(raw) && reader.getCurrentBsonType() == BsonType.DOCUMENT
+                && (raw.isRecord() || ClassIntrospector.get(raw).ctor() != null)) {
+            return readBean(reader, raw, ctx);
+        }
+        if (raw == BigDecimal.class && reader.getCurrentBsonType() == BsonType.DECIMAL128) {
+            return reader.readDecimal128().bigDecimalValue();
+        }
+        return coerce(mapper.toObject(readTree(reader, ctx), type), raw);
+    }
+
+    /**
+     * Reads a value into the same Java types {@link org.bson.Document} would hold, so serializers
+     * see identical trees on the codec and document paths.
+     */
+    private Object readTree(BsonReader reader, DecoderContext ctx) {
+        switch (reader.getCurrentBsonType()) {
+            case DOCUMENT -> {
+                Map<String, Object> out = new LinkedHashMap<>();
+                reader.readStartDocument();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    String name = reader.readName();
+                    out.put(name, readTree(reader, ctx));
+                }
+                reader.readEndDocument();
+                return out;
+            }
+            case ARRAY -> {
+                List<Object> out = new ArrayList<>();
+                reader.readStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    out.add(readTree(reader, ctx));
+                }
+                reader.readEndArray();
+                return out;
+            }
+            case STRING -> {
+                return reader.readString();
+            }
+            case INT32 -> {
+                return reader.readInt32();
+            }
+            case INT64 -> {
+                return reader.readInt64();
+            }
+            case DOUBLE -> {
+                return reader.readDouble();
+            }
+            case BOOLEAN -> {
+                return reader.readBoolean();
+            }
+            case NULL -> {
+                reader.readNull();
+                return null;
+            }
+            default -> {
+                return treeCodecs.get(reader.getCurrentBsonType()).decode(reader, ctx);
+            }
+        }
+    }
+
+    /**
+     * Numbers read from BSON may be wider or narrower than the boxed target type.
+     */
+    private static Object coerce(Object value, Class<?> target) {
+        if (target == Character.class && value instanceof String s && !s.isEmpty()) return s.charAt(0);
+        if (!(value instanceof Number n) || target.isInstance(value)) return value;
+        if (target == Integer.class) return n.intValue();
+        if (target == Long.class) return n.longValue();
+        if (target == Double.class) return n.doubleValue();
+        if (target == Float.class) return n.floatValue();
+        if (target == Short.class) return n.shortValue();
+        if (target == Byte.class) return n.byteValue();
+        return value;
+    }
+
+    private static boolean isBean(Class<?> type) {
+        return !type.isPrimitive()
+                && !type.isEnum()
+                && !type.isArray()
+                && !type.isInterface()
+                && !Number.class.isAssignableFrom(type)
+                && !Map.class.isAssignableFrom(type)
+                && !Iterable.class.isAssignableFrom(type)
+                && !ReflectMapper.isPrimitiveCollection(type)
+                && type != String.class
+                && type != Boolean.class
+                && type != Character.class
+                && type != Object.class
+                && !type.getName().startsWith("java.");
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class<?> c) return c;
+        if (type instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> c) return c;
+        if (type instanceof WildcardType wt) return rawClass(wt.getUpperBounds()[0]);
+        return Object.class;
+    }
+
+    private static Map<String, Integer> buildIndex(Class<?> type) {
+        ClassIntrospector.ClassMeta meta = ClassIntrospector.get(type);
+        Map<String, Integer> index = new HashMap<>();
+        if (meta.isRecord()) {
+            for (int i = 0; i < meta.recordProps().size(); i++) index.put(meta.recordProps().get(i).name(), i);
+        } else {
+            for (int i = 0; i < meta.pojoFields().size(); i++) index.put(meta.pojoFields().get(i).name(), i);
+        }
+        return Map.copyOf(index);
+    }
+
+    private static Object get(ClassIntrospector.PojoField f, Object bean) {
+        if (f.handle() != null) return f.handle().get(bean);
+        try {
+            return f.reflectField().get(bean);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void set(ClassIntrospector.PojoField f, Object bean, Object value) {
+        if (f.handle() != null) {
+            f.handle().set(bean, value);
+            return;
+        }
+        try {
+            f.reflectField().set(bean, value);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
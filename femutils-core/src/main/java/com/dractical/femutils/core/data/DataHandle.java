@@ -7,6 +7,7 @@
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Mutable, reloadable view over a persisted payload. Mirrored after
@@ -44,6 +45,14 @@ public T reload() throws IOException {
         return newVal;
     }
 
+    /**
+     * Reads a single field of the stored payload without loading the whole object.
+     * The held value is not touched.
+     */
+    public <F> F field(String path, Class<F> fieldType) throws IOException {
+        return engine.loadField(ref, path, fieldType);
+    }
+
     public boolean exists() throws IOException {
         return engine.exists(ref);
     }
@@ -79,5 +88,32 @@ public interface Engine extends Closeable {
         boolean exists(DataRef ref) throws IOException;
 
         void delete(DataRef ref) throws IOException;
+
+        /**
+         * Reads the value at a dotted path of the stored payload, or null if it is missing.
+         * Engines fetch only that field where the store supports it.
+         */
+        default <T> T loadField(DataRef ref, String path, Class<T> type) throws IOException {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support field reads");
+        }
+
+        /**
+         * Streams stored payloads matching the filter in the given order, at most {@code limit} of them
+         * (0 for no limit). Results are fetched lazily, close the stream when done.
+         */
+        default <T> Stream<Stored<T>> scan(Class<T> type, Filter filter, Sort sort, int limit) throws IOException {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support scans");
+        }
+
+        /**
+         * Upgrades the stored payload to the current {@link Version} of the type and writes it back.
+         * Returns false if nothing is stored or it is already current. The default implementation
+         * cannot tell and rewrites every existing payload.
+         */
+        default <T> boolean migrate(DataRef ref, Class<T> type) throws IOException {
+            if (!exists(ref)) return false;
+            save(ref, load(ref, type, () -> null));
+            return true;
+        }
     }
 }
@@ -0,0 +1,75 @@
+package com.dractical.femutils.core.data;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Condition on dotted field paths of stored payloads, translated to the native query of each engine.
+ */
+@SuppressWarnings("unused")
+public sealed interface Filter permits Filter.All, Filter.Compare, Filter.And {
+
+    static Filter all() {
+        return All.INSTANCE;
+    }
+
+    static Filter eq(String path, Object value) {
+        return new Compare(path, Op.EQ, value);
+    }
+
+    static Filter gt(String path, Object value) {
+        return new Compare(path, Op.GT, value);
+    }
+
+    static Filter gte(String path, Object value) {
+        return new Compare(path, Op.GTE, value);
+    }
+
+    static Filter lt(String path, Object value) {
+        return new Compare(path, Op.LT, value);
+    }
+
+    static Filter lte(String path, Object value) {
+        return new Compare(path, Op.LTE, value);
+    }
+
+    static Filter and(Filter... filters) {
+        return new And(List.of(filters));
+    }
+
+    enum Op {
+        EQ("="), GT(">"), GTE(">="), LT("<"), LTE("<=");
+
+        private final String sql;
+
+        Op(String sql) {
+            this.sql = sql;
+        }
+
+        public String sql() {
+            return sql;
+        }
+    }
+
+    /**
+     * Matches everything.
+     */
+    enum All implements Filter {
+        INSTANCE
+    }
+
+    record Compare(String path, Op op, Object value) implements Filter {
+        public Compare {
+            TreePaths.validate(path);
+            Objects.requireNonNull(op, "op");
+            Objects.requireNonNull(value, "value");
+            if (value instanceof Enum<?> e) value = e.name();
+        }
+    }
+
+    record And(List<Filter> filters) implements Filter {
+        public And {
+            filters = List.copyOf(filters);
+        }
+    }
+}
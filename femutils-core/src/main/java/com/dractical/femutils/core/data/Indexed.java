@@ -0,0 +1,15 @@
+package com.dractical.femutils.core.data;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Field that scans filter or sort on. Keyed engines create a secondary index for it
+ * the first time the type is loaded or scanned.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface Indexed {
+}
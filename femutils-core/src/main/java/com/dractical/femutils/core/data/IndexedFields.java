@@ -0,0 +1,57 @@
+package com.dractical.femutils.core.data;
+
+import com.dractical.femutils.core.config.ClassIntrospector;
+import com.dractical.femutils.core.config.ReflectMapper;
+
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dotted paths of the {@link Indexed} fields of a type, including fields of nested records and POJOs.
+ */
+final class IndexedFields {
+    private static final int MAX_DEPTH = 4;
+    private static final Map<Class<?>, List<Field>> CACHE = new ConcurrentHashMap<>();
+
+    private IndexedFields() {
+        throw new AssertionError("No " + IndexedFields.class.getName() + " instances");
+    }
+
+    static List<Field> of(Class<?> type) {
+        return CACHE.computeIfAbsent(type, t -> {
+            List<Field> out = new ArrayList<>();
+            collect(t, "", 0, out);
+            return List.copyOf(out);
+        });
+    }
+
+    private static void collect(Class<?> type, String prefix, int depth, List<Field> out) {
+        if (depth >= MAX_DEPTH || type.isPrimitive() || type.isEnum() || type.isArray() || type.getName().startsWith("java.")
+                || ReflectMapper.isPrimitiveCollection(type)) {
+            return;
+        }
+        if (type.isRecord()) {
+            for (RecordComponent rc : type.getRecordComponents()) {
+                visit(prefix + rc.getName(), rc.getType(), rc.isAnnotationPresent(Indexed.class), depth, out);
+            }
+            return;
+        }
+        for (ClassIntrospector.PojoField f : ClassIntrospector.get(type).pojoFields()) {
+            visit(prefix + f.name(), f.rawType(), f.reflectField().isAnnotationPresent(Indexed.class), depth, out);
+        }
+    }
+
+    private static void visit(String path, Class<?> type, boolean indexed, int depth, List<Field> out) {
+        if (indexed) {
+            out.add(new Field(path, type));
+        } else {
+            collect(type, path + ".", depth + 1, out);
+        }
+    }
+
+    record Field(String path, Class<?> type) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.dractical.femutils.core.data;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a static method of a {@link Version versioned} type that upgrades a raw tree from
+ * version {@code from} to {@code from + 1}. The method takes a {@code Map<String, Object>} and
+ * either changes it in place ({@code void}) or returns the new map.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface MigrationStep {
+    int from();
+}
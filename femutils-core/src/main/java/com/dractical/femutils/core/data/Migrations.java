@@ -0,0 +1,123 @@
+package com.dractical.femutils.core.data;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the {@link MigrationStep} methods of {@link Version versioned} types to raw trees.
+ * Engines migrate on load and stamp the version on save, so old data is upgraded in memory
+ * and written back the next time it is saved.
+ */
+@SuppressWarnings("unused")
+public final class Migrations {
+    public static final String VERSION_KEY = "_version";
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Map<Class<?>, Plan> PLANS = new ConcurrentHashMap<>();
+
+    private Migrations() {
+        throw new AssertionError("No " + Migrations.class.getName() + " instances");
+    }
+
+    /**
+     * Version declared by {@link Version}, 1 for types without one.
+     */
+    public static int currentVersion(Class<?> type) {
+        return plan(type).version;
+    }
+
+    /**
+     * Version stamped in the tree, 1 if it has none.
+     */
+    public static int storedVersion(Object tree) {
+        if (tree instanceof Map<?, ?> map && map.get(VERSION_KEY) instanceof Number n) {
+            return n.intValue();
+        }
+        return 1;
+    }
+
+    public static boolean needsMigration(Object tree, Class<?> type) {
+        Plan plan = plan(type);
+        return plan.versioned && tree instanceof Map<?, ?> && storedVersion(tree) < plan.version;
+    }
+
+    /**
+     * Runs every step from the stored version up to the current one.
+     * Returns the tree untouched if it is already current.
+     */
+    @SuppressWarnings("unchecked")
+    public static Object migrate(Object tree, Class<?> type) {
+        Objects.requireNonNull(type, "type");
+        if (!needsMigration(tree, type)) {
+            return tree;
+        }
+        Plan plan = plan(type);
+        Map<String, Object> current = new LinkedHashMap<>((Map<String, Object>) tree);
+        for (int v = storedVersion(tree); v < plan.version; v++) {
+            MethodHandle step = plan.steps.get(v);
+            if (step == null) {
+                throw new IllegalStateException("No migration step from version " + v + " for " + type.getName());
+            }
+            try {
+                Object result = step.invoke(current);
+                if (result != null) {
+                    current = new LinkedHashMap<>((Map<String, Object>) result);
+                }
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Migration step from version " + v + " of " + type.getName() + " failed", e);
+            }
+        }
+        current.put(VERSION_KEY, plan.version);
+        return current;
+    }
+
+    /**
+     * Adds the current version to a tree about to be saved. Trees of unversioned types are returned as is.
+     */
+    @SuppressWarnings("unchecked")
+    public static Object stamp(Object tree, Class<?> type) {
+        Plan plan = plan(type);
+        if (!plan.versioned || !(tree instanceof Map<?, ?>)) {
+            return tree;
+        }
+        ((Map<String, Object>) tree).put(VERSION_KEY, plan.version);
+        return tree;
+    }
+
+    private static Plan plan(Class<?> type) {
+        return PLANS.computeIfAbsent(type, Migrations::build);
+    }
+
+    private static Plan build(Class<?> type) {
+        Version version = type.getAnnotation(Version.class);
+        if (version == null) {
+            return new Plan(false, 1, Map.of());
+        }
+        Map<Integer, MethodHandle> steps = new HashMap<>();
+        for (Method m : type.getDeclaredMethods()) {
+            MigrationStep step = m.getAnnotation(MigrationStep.class);
+            if (step == null) continue;
+            if (!Modifier.isStatic(m.getModifiers()) || m.getParameterCount() != 1 || !Map.class.isAssignableFrom(m.getParameterTypes()[0])) {
+                throw new IllegalStateException("Migration step " + type.getName() + "." + m.getName() + " must be static and take a Map");
+            }
+            try {
+                m.setAccessible(true);
+                steps.put(step.from(), LOOKUP.unreflect(m));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return new Plan(true, version.value(), Map.copyOf(steps));
+    }
+
+    private record Plan(boolean versioned, int version, Map<Integer, MethodHandle> steps) {
+    }
+}
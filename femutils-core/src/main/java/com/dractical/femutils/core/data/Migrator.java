@@ -0,0 +1,113 @@
+package com.dractical.femutils.core.data;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Walks stored payloads in the background and migrates them at a fixed rate, so data that is
+ * never loaded still reaches the current {@link Version} without a blocking bulk migration.
+ * Refs that are open in a {@link DataHandle} should be left out, their next save migrates them.
+ */
+@SuppressWarnings("unused")
+public final class Migrator implements Closeable {
+    private final DataHandle.Engine engine;
+    private final Class<?> type;
+    private final Iterator<? extends DataRef> refs;
+    private final long periodNanos;
+    private final AtomicLong migrated = new AtomicLong();
+    private final AtomicLong current = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile BiConsumer<DataRef, Exception> errorHandler = (ref, e) -> {
+    };
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param perSecond maximum number of payloads checked per second
+     */
+    public Migrator(DataHandle.Engine engine, Class<?> type, Iterator<? extends DataRef> refs, int perSecond) {
+        this.engine = Objects.requireNonNull(engine, "engine");
+        this.type = Objects.requireNonNull(type, "type");
+        this.refs = Objects.requireNonNull(refs, "refs");
+        if (perSecond <= 0) {
+            throw new IllegalArgumentException("perSecond must be positive");
+        }
+        this.periodNanos = TimeUnit.SECONDS.toNanos(1) / perSecond;
+    }
+
+    /**
+     * Called for every payload that failed to migrate. Failures do not stop the migrator.
+     */
+    public Migrator onError(BiConsumer<DataRef, Exception> handler) {
+        this.errorHandler = Objects.requireNonNull(handler, "handler");
+        return this;
+    }
+
+    public synchronized Migrator start() {
+        if (executor != null) {
+            throw new IllegalStateException("Migrator already started");
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "FemUtils Migrator - " + type.getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::step, 0L, Math.max(periodNanos, 1L), TimeUnit.NANOSECONDS);
+        return this;
+    }
+
+    /**
+     * Completes once every ref was visited, or when the migrator is closed.
+     */
+    public CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    public long migrated() {
+        return migrated.get();
+    }
+
+    /**
+     * Payloads that were already at the current version or no longer exist.
+     */
+    public long current() {
+        return current.get();
+    }
+
+    public long failed() {
+        return failed.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        completion.complete(null);
+    }
+
+    private void step() {
+        DataRef ref;
+        synchronized (refs) {
+            if (!refs.hasNext()) {
+                close();
+                return;
+            }
+            ref = refs.next();
+        }
+        try {
+            if (engine.migrate(ref, type)) {
+                migrated.incrementAndGet();
+            } else {
+                current.incrementAndGet();
+            }
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            errorHandler.accept(ref, e);
+        }
+    }
+}
@@ -2,59 +2,123 @@
 
 import com.dractical.femutils.core.config.ReflectMapper;
 import com.dractical.femutils.core.config.TypeRegistry;
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoDatabase;
-import com.mongodb.client.model.Filters;
-import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.*;
+import com.mongodb.client.model.*;
 import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.codecs.configuration.CodecRegistries;
 
 import java.io.IOException;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @SuppressWarnings("unused")
 public final class MongoDataEngine implements DataHandle.Engine {
     private final MongoClient client;
     private final MongoCollection<Document> collection;
     private final ReflectMapper mapper;
+    private final TypeRegistry registry;
     private final boolean closeClient;
+    private final boolean useCodecs;
+    private final Map<Class<?>, MongoCollection<?>> typed = new ConcurrentHashMap<>();
+    private final Set<Class<?>> indexed = ConcurrentHashMap.newKeySet();
 
     public MongoDataEngine(MongoClient client, String database, String collection, TypeRegistry registry) {
         this(client, database, collection, registry, false);
     }
 
     public MongoDataEngine(MongoClient client, String database, String collection, TypeRegistry registry, boolean closeClient) {
+        this(client, database, collection, registry, closeClient, false);
+    }
+
+    /**
+     * @param useCodecs encode and decode records and POJOs directly with a generated BSON codec
+     *                  instead of copying them through {@link Document} maps
+     */
+    public MongoDataEngine(MongoClient client, String database, String collection, TypeRegistry registry, boolean closeClient, boolean useCodecs) {
         this.client = Objects.requireNonNull(client, "client");
         Objects.requireNonNull(database, "database");
         Objects.requireNonNull(collection, "collection");
         MongoDatabase db = client.getDatabase(database);
         this.collection = db.getCollection(collection);
-        this.mapper = new ReflectMapper(Objects.requireNonNull(registry, "registry"));
+        this.registry = Objects.requireNonNull(registry, "registry");
+        this.mapper = new ReflectMapper(registry);
         this.closeClient = closeClient;
+        this.useCodecs = useCodecs;
     }
 
     @Override
     public <T> T load(DataRef ref, Class<T> type, Supplier<T> defaults) {
         Object key = requireKey(ref);
+        ensureIndexes(type);
+        if (useCodecs && BeanCodec.supports(type, registry)) {
+            T value = typed(type).find(Filters.eq("_id", key)).first();
+            if (value == null) {
+                value = defaults.get();
+                save(ref, value);
+            }
+            return value;
+        }
         Document doc = collection.find(Filters.eq("_id", key)).first();
         if (doc == null) {
             T def = defaults.get();
             save(ref, def);
             return def;
         }
-        Map<String, Object> copy = new LinkedHashMap<>(doc);
-        copy.remove("_id");
-        Object body = (copy.size() == 1 && copy.containsKey("value")) ? copy.get("value") : copy;
-        return mapper.toObject(body, type);
+        return mapper.toObject(Migrations.migrate(body(doc), type), type);
+    }
+
+    @Override
+    public <T> T loadField(DataRef ref, String path, Class<T> type) {
+        Object key = requireKey(ref);
+        TreePaths.validate(path);
+        Document doc = collection.find(Filters.eq("_id", key))
+                .projection(Projections.fields(Projections.include(path), Projections.excludeId()))
+                .first();
+        return doc == null ? null : mapper.toObject(TreePaths.get(doc, path), type);
+    }
+
+    @Override
+    public <T> Stream<Stored<T>> scan(Class<T> type, Filter filter, Sort sort, int limit) {
+        Objects.requireNonNull(type, "type");
+        ensureIndexes(type);
+        FindIterable<Document> find = collection.find(toBson(Objects.requireNonNull(filter, "filter")))
+                .sort(toBson(Objects.requireNonNull(sort, "sort")));
+        if (limit > 0) {
+            find = find.limit(limit);
+        }
+        MongoCursor<Document> cursor = find.iterator();
+        Spliterator<Document> split = Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(split, false)
+                .map(doc -> new Stored<>(DataRef.key(doc.get("_id")), mapper.toObject(Migrations.migrate(body(doc), type), type)))
+                .onClose(cursor::close);
+    }
+
+    @Override
+    public <T> boolean migrate(DataRef ref, Class<T> type) {
+        Object key = requireKey(ref);
+        Document doc = collection.find(Filters.eq("_id", key)).first();
+        if (doc == null) return false;
+        Object body = body(doc);
+        if (!Migrations.needsMigration(body, type)) return false;
+        save(ref, mapper.toObject(Migrations.migrate(body, type), type));
+        return true;
     }
 
     @Override
     public void save(DataRef ref, Object value) {
         Object key = requireKey(ref);
-        Object tree = mapper.toTree(value);
+        if (useCodecs && value != null && BeanCodec.supports(value.getClass(), registry)) {
+            // the upsert takes _id from the filter, the codec never writes it
+            @SuppressWarnings("unchecked")
+            MongoCollection<Object> target = (MongoCollection<Object>) typed(value.getClass());
+            target.replaceOne(Filters.eq("_id", key), value, new ReplaceOptions().upsert(true));
+            return;
+        }
+        Object tree = Migrations.stamp(mapper.toTree(value), value.getClass());
         //noinspection unchecked
         Map<String, Object> map = (tree instanceof Map<?, ?> m)
                 ? new LinkedHashMap<>((Map<String, Object>) m)
@@ -87,6 +151,52 @@ public void close() throws IOException {
         }
     }
 
+    /**
+     * Creates an index for every {@link Indexed} field the first time a type is used.
+     */
+    private void ensureIndexes(Class<?> type) {
+        if (!indexed.add(type)) return;
+        for (IndexedFields.Field field : IndexedFields.of(type)) {
+            collection.createIndex(Indexes.ascending(field.path()));
+        }
+    }
+
+    private static Bson toBson(Filter filter) {
+        return switch (filter) {
+            case Filter.All ignored -> new Document();
+            case Filter.And and -> Filters.and(and.filters().stream().map(MongoDataEngine::toBson).toList());
+            case Filter.Compare c -> switch (c.op()) {
+                case EQ -> Filters.eq(c.path(), c.value());
+                case GT -> Filters.gt(c.path(), c.value());
+                case GTE -> Filters.gte(c.path(), c.value());
+                case LT -> Filters.lt(c.path(), c.value());
+                case LTE -> Filters.lte(c.path(), c.value());
+            };
+        };
+    }
+
+    private static Bson toBson(Sort sort) {
+        if (sort.isByKey()) return Sorts.ascending("_id");
+        return sort.ascending()
+                ? Sorts.ascending(sort.path(), "_id")
+                : Sorts.descending(sort.path(), "_id");
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> MongoCollection<T> typed(Class<T> type) {
+        return (MongoCollection<T>) this.typed.computeIfAbsent(type, t -> collection
+                .withDocumentClass(t)
+                .withCodecRegistry(CodecRegistries.fromRegistries(
+                        CodecRegistries.fromCodecs(new BeanCodec<>(t, registry, mapper, collection.getCodecRegistry())),
+                        collection.getCodecRegistry())));
+    }
+
+    private Object body(Document doc) {
+        Map<String, Object> copy = new LinkedHashMap<>(doc);
+        copy.remove("_id");
+        return (copy.size() == 1 && copy.containsKey("value")) ? copy.get("value") : copy;
+    }
+
     private Object requireKey(DataRef ref) {
         if (ref instanceof DataRef.KeyRef(Object key)) return key;
         throw new IllegalArgumentException("Mongo engine requires a KeyRef, got " + ref.getClass().getSimpleName());
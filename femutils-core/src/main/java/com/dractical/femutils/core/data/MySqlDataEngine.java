@@ -7,13 +7,21 @@
 
 import javax.sql.DataSource;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.sql.*;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @SuppressWarnings("unused")
 public final class MySqlDataEngine implements DataHandle.Engine {
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_IDENTIFIER = 64;
+    private static final Pattern SQL_TYPE = Pattern.compile("[A-Za-z]+( ?\\(\\d+( ?, ?\\d+)?\\))?( UNSIGNED)?");
     private final Supplier<Connection> connectionSupplier;
     private final AutoCloseable closeable;
     private final ReflectMapper mapper;
@@ -23,6 +31,8 @@ public final class MySqlDataEngine implements DataHandle.Engine {
     private final String payloadColumn;
     private final boolean autoCreateTable;
     private final AtomicBoolean tableReady = new AtomicBoolean(false);
+    private final Map<String, String> hotColumns = new ConcurrentHashMap<>();
+    private final Set<Class<?>> indexed = ConcurrentHashMap.newKeySet();
 
     public MySqlDataEngine(DataSource dataSource, String table, String idColumn, String payloadColumn, TypeRegistry registry, boolean autoCreateTable) {
         this(() -> getConnection(dataSource), dataSource instanceof AutoCloseable ac ? ac : null, table, idColumn, payloadColumn, registry, autoCreateTable);
@@ -46,24 +56,105 @@ private MySqlDataEngine(Supplier<Connection> connectionSupplier, AutoCloseable c
     @Override
     public <T> T load(DataRef ref, Class<T> type, Supplier<T> defaults) throws IOException {
         ensureTable();
-        Object key = requireKey(ref);
+        ensureIndexes(type);
+        String payload = readPayload(requireKey(ref));
+        if (payload == null) {
+            T def = defaults.get();
+            save(ref, def);
+            return def;
+        }
+        return mapper.toObject(Migrations.migrate(json.readValue(payload, Object.class), type), type);
+    }
 
+    @Override
+    public <T> T loadField(DataRef ref, String path, Class<T> type) throws IOException {
+        ensureTable();
+        Object key = requireKey(ref);
+        TreePaths.validate(path);
+        String column = hotColumns.get(path);
+        String select = column != null ? "`" + column + "`" : "JSON_EXTRACT(`" + payloadColumn + "`, ?)";
         try (Connection c = connection();
-             PreparedStatement ps = c.prepareStatement("SELECT `" + payloadColumn + "` FROM `" + table + "` WHERE `" + idColumn + "`=? LIMIT 1")) {
-            ps.setObject(1, key);
+             PreparedStatement ps = c.prepareStatement("SELECT " + select + " FROM `" + table + "` WHERE `" + idColumn + "`=? LIMIT 1")) {
+            int index = 1;
+            if (column == null) ps.setString(index++, TreePaths.jsonPath(path));
+            ps.setObject(index, key);
             try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) {
-                    T def = defaults.get();
-                    save(ref, def);
-                    return def;
+                if (!rs.next()) return null;
+                if (column != null) return mapper.toObject(rs.getObject(1), type);
+                String value = rs.getString(1);
+                return value == null ? null : mapper.toObject(json.readValue(value, Object.class), type);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to load field " + path + " from MySQL: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Pages through the table with keyset pagination, one query of up to 500 rows at a time.
+     * Sorting by a field requires it to be {@link Indexed} or declared with {@link #declareHotField},
+     * rows without that field are skipped.
+     */
+    @Override
+    public <T> Stream<Stored<T>> scan(Class<T> type, Filter filter, Sort sort, int limit) throws IOException {
+        Objects.requireNonNull(type, "type");
+        Objects.requireNonNull(filter, "filter");
+        Objects.requireNonNull(sort, "sort");
+        ensureTable();
+        ensureIndexes(type);
+        String sortColumn = null;
+        if (!sort.isByKey()) {
+            sortColumn = hotColumns.get(sort.path());
+            if (sortColumn == null) {
+                throw new IllegalArgumentException("Sort field " + sort.path() + " must be @Indexed or declared with declareHotField");
+            }
+        }
+        List<Object> params = new ArrayList<>();
+        String where = toSql(filter, params);
+        if (sortColumn != null) {
+            where = "(" + where + ") AND `" + sortColumn + "` IS NOT NULL";
+        }
+        Pager<T> pager = new Pager<>(type, where, params, sortColumn, sort.ascending(), limit > 0 ? limit : -1);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pager, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Materializes a payload field as an indexed generated column, e.g. {@code ("stats.balance", "DOUBLE")}.
+     * {@link #loadField} then reads the column instead of parsing the payload. Call once at startup.
+     * A JSON null or a missing field is stored as SQL NULL.
+     */
+    public void declareHotField(String path, String sqlType) throws IOException {
+        TreePaths.validate(path);
+        Objects.requireNonNull(sqlType, "sqlType");
+        if (!SQL_TYPE.matcher(sqlType).matches()) {
+            throw new IllegalArgumentException("Invalid SQL type: " + sqlType);
+        }
+        ensureTable();
+        String column = hotColumn(path);
+        try (Connection c = connection()) {
+            if (!columnExists(c, column)) {
+                String extract = "JSON_EXTRACT(`" + payloadColumn + "`, '" + TreePaths.jsonPath(path) + "')";
+                // JSON_UNQUOTE turns a JSON null into the string 'null', which strict mode rejects for numeric columns
+                String expr = "CASE WHEN JSON_TYPE(" + extract + ") = 'NULL' THEN NULL ELSE JSON_UNQUOTE(" + extract + ") END";
+                try (Statement st = c.createStatement()) {
+                    st.executeUpdate("ALTER TABLE `" + table + "` ADD COLUMN `" + column + "` " + sqlType
+                            + " GENERATED ALWAYS AS (" + expr + ") VIRTUAL, ADD INDEX `idx_" + column + "` (`" + column + "`)");
                 }
-                String payload = rs.getString(1);
-                Object raw = payload == null ? null : json.readValue(payload, Object.class);
-                return mapper.toObject(raw, type);
             }
         } catch (SQLException e) {
-            throw new IOException("Failed to load from MySQL: " + e.getMessage(), e);
+            throw new IOException("Failed to declare hot field " + path + ": " + e.getMessage(), e);
         }
+        hotColumns.put(path, column);
+    }
+
+    @Override
+    public <T> boolean migrate(DataRef ref, Class<T> type) throws IOException {
+        ensureTable();
+        String payload = readPayload(requireKey(ref));
+        if (payload == null) return false;
+        Object raw = json.readValue(payload, Object.class);
+        if (!Migrations.needsMigration(raw, type)) return false;
+        save(ref, mapper.toObject(Migrations.migrate(raw, type), type));
+        return true;
     }
 
     @Override
@@ -72,7 +163,7 @@ public void save(DataRef ref, Object value) throws IOException {
         Object key = requireKey(ref);
         String payload;
         try {
-            payload = json.writeValueAsString(mapper.toTree(value));
+            payload = json.writeValueAsString(Migrations.stamp(mapper.toTree(value), value.getClass()));
         } catch (JsonProcessingException e) {
             throw new IOException("Unable to encode value as JSON", e);
         }
@@ -145,6 +236,98 @@ private void ensureTable() throws IOException {
         }
     }
 
+    /**
+     * Stored JSON of the key, or null if there is no row.
+     */
+    private String readPayload(Object key) throws IOException {
+        try (Connection c = connection();
+             PreparedStatement ps = c.prepareStatement("SELECT `" + payloadColumn + "` FROM `" + table + "` WHERE `" + idColumn + "`=? LIMIT 1")) {
+            ps.setObject(1, key);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to load from MySQL: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Declares a hot field for every {@link Indexed} field the first time a type is used.
+     */
+    private void ensureIndexes(Class<?> type) throws IOException {
+        if (indexed.contains(type)) return;
+        for (IndexedFields.Field field : IndexedFields.of(type)) {
+            String sqlType = sqlType(field.type());
+            if (sqlType != null && !hotColumns.containsKey(field.path())) {
+                declareHotField(field.path(), sqlType);
+            }
+        }
+        indexed.add(type);
+    }
+
+    /**
+     * Column name for a hot field. Paths never contain {@code $}, so using it for the dots keeps
+     * {@code a_b} and {@code a.b} apart.
+     */
+    private String hotColumn(String path) {
+        String column = "hf_" + path.replace('.', '$');
+        if (("idx_" + column).length() > MAX_IDENTIFIER) {
+            throw new IllegalArgumentException("Field path too long for a hot field: " + path);
+        }
+        // MySQL column names ignore case while JSON keys do not
+        for (Map.Entry<String, String> entry : hotColumns.entrySet()) {
+            if (!entry.getKey().equals(path) && entry.getValue().equalsIgnoreCase(column)) {
+                throw new IllegalArgumentException("Hot field " + path + " clashes with " + entry.getKey());
+            }
+        }
+        return column;
+    }
+
+    private static String sqlType(Class<?> type) {
+        if (type == int.class || type == long.class || type == short.class || type == byte.class
+                || type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+            return "BIGINT";
+        }
+        if (type == double.class || type == float.class || type == Double.class || type == Float.class) {
+            return "DOUBLE";
+        }
+        if (type == String.class || type == UUID.class || type.isEnum()) {
+            return "VARCHAR(191)";
+        }
+        return null;
+    }
+
+    private String toSql(Filter filter, List<Object> params) {
+        return switch (filter) {
+            case Filter.All ignored -> "1=1";
+            case Filter.And and -> {
+                if (and.filters().isEmpty()) yield "1=1";
+                StringJoiner joiner = new StringJoiner(" AND ");
+                for (Filter f : and.filters()) joiner.add("(" + toSql(f, params) + ")");
+                yield joiner.toString();
+            }
+            case Filter.Compare c -> {
+                String column = hotColumns.get(c.path());
+                String expr = column != null
+                        ? "`" + column + "`"
+                        : "JSON_EXTRACT(`" + payloadColumn + "`, '" + TreePaths.jsonPath(c.path()) + "')";
+                params.add(c.value());
+                yield expr + " " + c.op().sql() + " ?";
+            }
+        };
+    }
+
+    private boolean columnExists(Connection c, String column) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT 1 FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ? LIMIT 1")) {
+            ps.setString(1, table);
+            ps.setString(2, column);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
     private Object requireKey(DataRef ref) {
         if (ref instanceof DataRef.KeyRef(Object key)) return key;
         throw new IllegalArgumentException("MySQL engine requires a KeyRef, got " + ref.getClass().getSimpleName());
@@ -174,4 +357,103 @@ private String sanitizeName(String name, String label) {
         }
         return name;
     }
+
+    /**
+     * Fetches one page per round trip, continuing after the last key (and sort value) seen.
+     */
+    private final class Pager<T> implements Iterator<Stored<T>> {
+        private final Class<T> type;
+        private final String where;
+        private final List<Object> params;
+        private final String sortColumn;
+        private final boolean ascending;
+        private final Deque<Stored<T>> buffer = new ArrayDeque<>();
+        private int remaining;
+        private boolean first = true;
+        private boolean exhausted;
+        private Object lastKey;
+        private Object lastSort;
+
+        Pager(Class<T> type, String where, List<Object> params, String sortColumn, boolean ascending, int remaining) {
+            this.type = type;
+            this.where = where;
+            this.params = params;
+            this.sortColumn = sortColumn;
+            this.ascending = ascending;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (buffer.isEmpty() && !exhausted) {
+                try {
+                    fetch();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return !buffer.isEmpty();
+        }
+
+        @Override
+        public Stored<T> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return buffer.poll();
+        }
+
+        private void fetch() throws IOException {
+            int size = remaining < 0 ? PAGE_SIZE : Math.min(PAGE_SIZE, remaining);
+            if (size == 0) {
+                exhausted = true;
+                return;
+            }
+            String dir = ascending ? "ASC" : "DESC";
+            String cmp = ascending ? ">" : "<";
+            StringBuilder sql = new StringBuilder("SELECT `").append(idColumn).append("`, `").append(payloadColumn).append('`');
+            if (sortColumn != null) sql.append(", `").append(sortColumn).append('`');
+            sql.append(" FROM `").append(table).append("` WHERE (").append(where).append(')');
+            List<Object> args = new ArrayList<>(params);
+            if (!first) {
+                if (sortColumn == null) {
+                    sql.append(" AND `").append(idColumn).append("` > ?");
+                    args.add(lastKey);
+                } else {
+                    sql.append(" AND (`").append(sortColumn).append("` ").append(cmp).append(" ? OR (`")
+                            .append(sortColumn).append("` = ? AND `").append(idColumn).append("` ").append(cmp).append(" ?))");
+                    args.add(lastSort);
+                    args.add(lastSort);
+                    args.add(lastKey);
+                }
+            }
+            if (sortColumn == null) {
+                sql.append(" ORDER BY `").append(idColumn).append("` ASC");
+            } else {
+                sql.append(" ORDER BY `").append(sortColumn).append("` ").append(dir)
+                        .append(", `").append(idColumn).append("` ").append(dir);
+            }
+            sql.append(" LIMIT ").append(size);
+
+            int count = 0;
+            try (Connection c = connection(); PreparedStatement ps = c.prepareStatement(sql.toString())) {
+                for (int i = 0; i < args.size(); i++) {
+                    ps.setObject(i + 1, args.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Object key = rs.getObject(1);
+                        Object raw = json.readValue(rs.getString(2), Object.class);
+                        buffer.add(new Stored<>(DataRef.key(key), mapper.toObject(Migrations.migrate(raw, type), type)));
+                        lastKey = key;
+                        if (sortColumn != null) lastSort = rs.getObject(3);
+                        count++;
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IOException("Failed to scan " + table + ": " + e.getMessage(), e);
+            }
+            first = false;
+            if (count < size) exhausted = true;
+            if (remaining > 0) remaining -= count;
+        }
+    }
 }
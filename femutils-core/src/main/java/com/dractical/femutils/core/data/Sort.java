@@ -0,0 +1,32 @@
+package com.dractical.femutils.core.data;
+
+/**
+ * Order of a scan. Ties are broken by key, so paging is stable.
+ */
+@SuppressWarnings("unused")
+public record Sort(String path, boolean ascending) {
+    private static final Sort BY_KEY = new Sort(null, true);
+
+    public Sort {
+        if (path != null) TreePaths.validate(path);
+    }
+
+    /**
+     * Ascending by key.
+     */
+    public static Sort byKey() {
+        return BY_KEY;
+    }
+
+    public static Sort asc(String path) {
+        return new Sort(path, true);
+    }
+
+    public static Sort desc(String path) {
+        return new Sort(path, false);
+    }
+
+    public boolean isByKey() {
+        return path == null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.dractical.femutils.core.data;
+
+/**
+ * Payload returned by a scan, together with the ref it is stored under.
+ */
+public record Stored<T>(DataRef ref, T value) {
+}
@@ -0,0 +1,54 @@
+package com.dractical.femutils.core.data;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Dotted paths into raw trees, e.g. {@code stats.balance}.
+ */
+final class TreePaths {
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9_]+(\\.[A-Za-z0-9_]+)*");
+
+    private TreePaths() {
+        throw new AssertionError("No " + TreePaths.class.getName() + " instances");
+    }
+
+    /**
+     * Rejects paths that are not dot separated identifiers, since engines splice them into queries.
+     */
+    static String validate(String path) {
+        if (path == null || !VALID.matcher(path).matches()) {
+            throw new IllegalArgumentException("Invalid field path: " + path);
+        }
+        return path;
+    }
+
+    /**
+     * Value at the path, or null if any segment is missing.
+     */
+    static Object get(Object tree, String path) {
+        Object current = tree;
+        int start = 0;
+        while (current != null) {
+            int dot = path.indexOf('.', start);
+            String segment = dot < 0 ? path.substring(start) : path.substring(start, dot);
+            current = current instanceof Map<?, ?> map ? map.get(segment) : null;
+            if (dot < 0) {
+                return current;
+            }
+            start = dot + 1;
+        }
+        return null;
+    }
+
+    /**
+     * MySQL JSON path for the dotted path, e.g. {@code $."stats"."balance"}.
+     */
+    static String jsonPath(String path) {
+        StringBuilder out = new StringBuilder("$");
+        for (String segment : path.split("\\.")) {
+            out.append(".\"").append(segment).append('"');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,15 @@
+package com.dractical.femutils.core.data;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Schema version of a stored type. Data saved before the type had a version counts as version 1.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Version {
+    int value();
+}
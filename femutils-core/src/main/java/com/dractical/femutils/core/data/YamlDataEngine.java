@@ -1,5 +1,6 @@
 package com.dractical.femutils.core.data;
 
+import com.dractical.femutils.core.config.Fingerprints;
 import com.dractical.femutils.core.config.ReflectMapper;
 import com.dractical.femutils.core.config.TypeRegistry;
 import org.yaml.snakeyaml.DumperOptions;
@@ -23,6 +24,7 @@ public final class YamlDataEngine implements DataHandle.Engine {
     private final ReflectMapper mapper;
     private final LoaderOptions loaderOptions;
     private final DumperOptions dumperOptions;
+    private final Fingerprints fingerprints = new Fingerprints();
 
     public YamlDataEngine(TypeRegistry registry) {
         this.mapper = new ReflectMapper(Objects.requireNonNull(registry, "registry"));
@@ -39,25 +41,48 @@ public <T> T load(DataRef ref, Class<T> type, Supplier<T> defaults) throws IOExc
             save(ref, def);
             return def;
         }
-        String text = Files.readString(path, StandardCharsets.UTF_8);
-        Object raw;
-        try {
-            raw = yaml().load(new StringReader(text));
-        } catch (Exception e) {
-            throw new IOException("Failed to parse YAML at " + path + ": " + e.getMessage(), e);
-        }
-        if (raw == null) raw = new LinkedHashMap<>();
-        return mapper.toObject(raw, type);
+        return mapper.toObject(Migrations.migrate(readTree(path), type), type);
+    }
+
+    @Override
+    public <T> T loadField(DataRef ref, String path, Class<T> type) throws IOException {
+        Path file = requirePath(ref);
+        TreePaths.validate(path);
+        if (Files.notExists(file)) return null;
+        return mapper.toObject(TreePaths.get(readTree(file), path), type);
+    }
+
+    @Override
+    public <T> boolean migrate(DataRef ref, Class<T> type) throws IOException {
+        Path path = requirePath(ref);
+        if (Files.notExists(path)) return false;
+        Object raw = readTree(path);
+        if (!Migrations.needsMigration(raw, type)) return false;
+        save(ref, mapper.toObject(Migrations.migrate(raw, type), type));
+        return true;
     }
 
     @Override
     public void save(DataRef ref, Object value) throws IOException {
         Path path = requirePath(ref);
         ensureParentExists(path);
-        Object tree = mapper.toTree(value);
+        Object tree = Migrations.stamp(mapper.toTree(value), value.getClass());
         StringWriter out = new StringWriter();
         yaml().dump(tree == null ? Map.of() : tree, out);
-        writeAtomically(path, out.toString());
+        byte[] bytes = out.toString().getBytes(StandardCharsets.UTF_8);
+        long hash = Fingerprints.hash(bytes);
+        if (fingerprints.unchanged(path, hash)) {
+            return;
+        }
+        writeAtomically(path, bytes);
+        fingerprints.record(path, hash);
+    }
+
+    /**
+     * Number of saves skipped because the serialized content matched the file on disk.
+     */
+    public long skippedWrites() {
+        return fingerprints.skippedWrites();
     }
 
     @Override
@@ -67,13 +92,27 @@ public boolean exists(DataRef ref) {
 
     @Override
     public void delete(DataRef ref) throws IOException {
-        Files.deleteIfExists(requirePath(ref));
+        Path path = requirePath(ref);
+        fingerprints.forget(path);
+        Files.deleteIfExists(path);
     }
 
     @Override
     public void close() {
     }
 
+    private Object readTree(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        Object raw;
+        try {
+            raw = yaml().load(new StringReader(new String(bytes, StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IOException("Failed to parse YAML at " + path + ": " + e.getMessage(), e);
+        }
+        fingerprints.record(path, Fingerprints.hash(bytes));
+        return raw == null ? new LinkedHashMap<>() : raw;
+    }
+
     private Path requirePath(DataRef ref) {
         if (ref instanceof DataRef.PathRef(Path path)) return path;
         throw new IllegalArgumentException("YAML engine requires a PathRef, got " + ref.getClass().getSimpleName());
@@ -86,11 +125,11 @@ private void ensureParentExists(Path path) throws IOException {
         }
     }
 
-    private void writeAtomically(Path target, String content) throws IOException {
+    private void writeAtomically(Path target, byte[] content) throws IOException {
         Path parent = target.toAbsolutePath().normalize().getParent();
         if (parent == null) parent = Path.of(".");
         Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
-        Files.writeString(temp, content, StandardCharsets.UTF_8, StandardOpenOption.TRUNCATE_EXISTING);
+        Files.write(temp, content, StandardOpenOption.TRUNCATE_EXISTING);
         try {
             Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
         } catch (AtomicMoveNotSupportedException e) {
@@ -2,8 +2,11 @@
 
 import com.dractical.femutils.core.check.Checks;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.function.Consumer;
 
 /**
  * String helpers.
@@ -11,6 +14,10 @@
 @SuppressWarnings("unused")
 public final class StringUtils {
     private static final String ELLIPSIS = "…";
+    private static final int POOL_SIZE = 4;
+    private static final int POOLED_CAPACITY_LIMIT = 8192;
+    // JDK types only, so a thread outliving the plugin does not keep its class loader reachable
+    private static final ThreadLocal<StringBuilder[]> POOL = new ThreadLocal<>();
 
     private StringUtils() {
         throw new AssertionError("No " + StringUtils.class.getName() + " instances");
@@ -49,12 +56,60 @@ public static String join(CharSequence delimiter, Iterable<?> parts) {
         Checks.notNull(parts, "parts");
         Iterator<?> it = parts.iterator();
         if (!it.hasNext()) return "";
-        StringBuilder sb = new StringBuilder(32);
-        sb.append(it.next());
+        Object first = it.next();
+        if (!it.hasNext()) return String.valueOf(first);
+        StringBuilder sb = borrowBuilder();
+        sb.append(first);
         while (it.hasNext()) {
             sb.append(delimiter).append(it.next());
         }
-        return sb.toString();
+        return release(sb);
+    }
+
+    /**
+     * Appends the joined parts to {@code out} instead of building a new String.
+     */
+    public static StringBuilder joinTo(StringBuilder out, CharSequence delimiter, Iterable<?> parts) {
+        Checks.notNull(out, "out");
+        Checks.notNull(delimiter, "delimiter");
+        Checks.notNull(parts, "parts");
+        boolean first = true;
+        for (Object part : parts) {
+            if (!first) out.append(delimiter);
+            out.append(part);
+            first = false;
+        }
+        return out;
+    }
+
+    /**
+     * Same as {@link #joinTo(StringBuilder, CharSequence, Iterable)} for any Appendable, e.g. a Writer.
+     */
+    public static <A extends Appendable> A joinTo(A out, CharSequence delimiter, Iterable<?> parts) {
+        Checks.notNull(out, "out");
+        Checks.notNull(delimiter, "delimiter");
+        Checks.notNull(parts, "parts");
+        try {
+            boolean first = true;
+            for (Object part : parts) {
+                if (!first) out.append(delimiter);
+                out.append(String.valueOf(part));
+                first = false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out;
+    }
+
+    /**
+     * Builds a String with a builder from a small per-thread pool. The builder must not escape the writer.
+     */
+    public static String build(Consumer<? super StringBuilder> writer) {
+        Checks.notNull(writer, "writer");
+        StringBuilder sb = borrowBuilder();
+        writer.accept(sb);
+        return release(sb);
     }
 
     /**
@@ -99,7 +154,7 @@ private Split(String left, String right, boolean found) {
      */
     public static Split splitOnce(String s, char delimiter) {
         Checks.notNull(s, "s");
-        int i = s.indexOf(delimiter);
+        int i = splitIndex(s, delimiter);
         if (i < 0) return new Split(s, null, false);
         return new Split(s.substring(0, i), s.substring(i + 1), true);
     }
@@ -109,12 +164,68 @@ public static Split splitOnce(String s, char delimiter) {
      */
     public static Split splitOnce(String s, String delimiter) {
         Checks.notNull(s, "s");
-        Checks.notBlank(delimiter, "delimiter");
-        int i = s.indexOf(delimiter);
+        int i = splitIndex(s, delimiter);
         if (i < 0) return new Split(s, null, false);
         return new Split(s.substring(0, i), s.substring(i + delimiter.length()), true);
     }
 
+    /**
+     * Index of the first delimiter, or -1. Allocation-free form of {@link #splitOnce(String, char)}.
+     */
+    public static int splitIndex(CharSequence s, char delimiter) {
+        Checks.notNull(s, "s");
+        if (s instanceof String str) return str.indexOf(delimiter);
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            if (s.charAt(i) == delimiter) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Index of the first non-empty delimiter string, or -1. The right part starts at {@code index + delimiter.length()}.
+     */
+    public static int splitIndex(CharSequence s, String delimiter) {
+        Checks.notNull(s, "s");
+        Checks.notBlank(delimiter, "delimiter");
+        if (s instanceof String str) return str.indexOf(delimiter);
+        int n = s.length() - delimiter.length();
+        outer:
+        for (int i = 0; i <= n; i++) {
+            for (int j = 0; j < delimiter.length(); j++) {
+                if (s.charAt(i + j) != delimiter.charAt(j)) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Splits without allocating: writes the start and end offset of each field into {@code bounds}
+     * as {@code [start0, end0, start1, end1, ...]} and returns the number of fields. Stops once
+     * {@code bounds} is full, the last field then runs to the end of the input.
+     */
+    public static int splitBounds(CharSequence s, char delimiter, int[] bounds) {
+        Checks.notNull(s, "s");
+        Checks.notNull(bounds, "bounds");
+        int max = bounds.length / 2;
+        if (max == 0) return 0;
+        int n = s.length();
+        int fields = 0;
+        int start = 0;
+        for (int i = 0; i < n && fields < max - 1; i++) {
+            if (s.charAt(i) == delimiter) {
+                bounds[fields * 2] = start;
+                bounds[fields * 2 + 1] = i;
+                fields++;
+                start = i + 1;
+            }
+        }
+        bounds[fields * 2] = start;
+        bounds[fields * 2 + 1] = n;
+        return fields + 1;
+    }
+
     /**
      * Truncate to max characters. If truncated, append the suffix.
      * If suffix length > max, returns suffix.substring(0, max).
@@ -170,26 +281,33 @@ public static String padRight(String s, int width, char pad) {
      */
     public static String snakeToLowerCamel(String s) {
         Checks.notNull(s, "s");
-        int n = s.length();
-        if (n == 0) return s;
+        if (s.isEmpty()) return s;
+        return release(appendSnakeToLowerCamel(borrowBuilder(), s));
+    }
 
-        char[] out = new char[n];
-        int o = 0;
+    /**
+     * Appends {@code s} converted from snake_case to lowerCamelCase.
+     */
+    public static StringBuilder appendSnakeToLowerCamel(StringBuilder out, CharSequence s) {
+        Checks.notNull(out, "out");
+        Checks.notNull(s, "s");
+        int n = s.length();
+        int start = out.length();
         boolean upcaseNext = false;
         for (int i = 0; i < n; i++) {
             char c = s.charAt(i);
             if (c == '_') {
-                upcaseNext = (o != 0);
+                upcaseNext = (out.length() != start);
                 continue;
             }
             if (upcaseNext) {
-                out[o++] = Character.toUpperCase(c);
+                out.append(toUpper(c));
                 upcaseNext = false;
             } else {
-                out[o++] = Character.toLowerCase(c);
+                out.append(toLower(c));
             }
         }
-        return new String(out, 0, o);
+        return out;
     }
 
     /**
@@ -199,9 +317,9 @@ public static String snakeToUpperCamel(String s) {
         String lowerCamel = snakeToLowerCamel(s);
         if (lowerCamel.isEmpty()) return lowerCamel;
         char first = lowerCamel.charAt(0);
-        if (Character.isUpperCase(first)) return lowerCamel;
+        if (isUpper(first)) return lowerCamel;
         char[] chars = lowerCamel.toCharArray();
-        chars[0] = Character.toUpperCase(first);
+        chars[0] = toUpper(first);
         return new String(chars);
     }
 
@@ -210,25 +328,64 @@ public static String snakeToUpperCamel(String s) {
      */
     public static String camelToSnake(String s) {
         Checks.notNull(s, "s");
-        int n = s.length();
-        if (n == 0) return s;
+        if (s.isEmpty()) return s;
+        return release(appendCamelToSnake(borrowBuilder(), s));
+    }
 
-        StringBuilder sb = new StringBuilder(n + n / 2);
+    /**
+     * Appends {@code s} converted from camelCase / PascalCase to snake_case.
+     */
+    public static StringBuilder appendCamelToSnake(StringBuilder out, CharSequence s) {
+        Checks.notNull(out, "out");
+        Checks.notNull(s, "s");
+        int n = s.length();
+        int start = out.length();
         char prev = 0;
         for (int i = 0; i < n; i++) {
             char c = s.charAt(i);
-            boolean isUpper = Character.isUpperCase(c);
+            boolean isUpper = isUpper(c);
             if (i > 0) {
                 char next = (i + 1 < n) ? s.charAt(i + 1) : 0;
-                boolean boundary = (isUpper && Character.isLowerCase(prev)) || (isUpper && Character.isUpperCase(prev) && Character.isLowerCase(next));
-                if (boundary && !sb.isEmpty() && sb.charAt(sb.length() - 1) != '_') {
-                    sb.append('_');
+                boolean boundary = (isUpper && isLower(prev)) || (isUpper && isUpper(prev) && isLower(next));
+                if (boundary && out.length() > start && out.charAt(out.length() - 1) != '_') {
+                    out.append('_');
                 }
             }
-            sb.append(Character.toLowerCase(c));
+            out.append(toLower(c));
             prev = c;
         }
-        return sb.toString();
+        return out;
+    }
+
+    /**
+     * Case-insensitive prefix test without lower-casing either string, e.g. for tab completion.
+     * ASCII characters are compared directly, anything else falls back to {@link String#regionMatches}.
+     */
+    public static boolean startsWithIgnoreCase(String s, String prefix) {
+        Checks.notNull(s, "s");
+        Checks.notNull(prefix, "prefix");
+        int n = prefix.length();
+        if (n > s.length()) return false;
+        for (int i = 0; i < n; i++) {
+            char a = s.charAt(i);
+            char b = prefix.charAt(i);
+            if (a == b) continue;
+            if ((a | b) < 0x80) {
+                // ASCII letters differ only in bit 0x20
+                if ((a ^ b) != 0x20 || !isAsciiLetter(a)) return false;
+                continue;
+            }
+            return s.regionMatches(true, i, prefix, i, n - i);
+        }
+        return true;
+    }
+
+    /**
+     * Like {@link String#equalsIgnoreCase}, with the same ASCII fast path as {@link #startsWithIgnoreCase}.
+     */
+    public static boolean equalsIgnoreCase(String a, String b) {
+        if (a == null || b == null) return a == b;
+        return a.length() == b.length() && startsWithIgnoreCase(a, b);
     }
 
     /**
@@ -264,4 +421,68 @@ public static String repeat(char c, int count) {
         Arrays.fill(out, c);
         return new String(out);
     }
+
+    private static boolean isAsciiLetter(char c) {
+        return (char) ((c | 0x20) - 'a') < 26;
+    }
+
+    private static boolean isUpper(char c) {
+        return c < 0x80 ? c >= 'A' && c <= 'Z' : Character.isUpperCase(c);
+    }
+
+    private static boolean isLower(char c) {
+        return c < 0x80 ? c >= 'a' && c <= 'z' : Character.isLowerCase(c);
+    }
+
+    private static char toLower(char c) {
+        if (c < 0x80) return c >= 'A' && c <= 'Z' ? (char) (c | 0x20) : c;
+        return Character.toLowerCase(c);
+    }
+
+    private static char toUpper(char c) {
+        if (c < 0x80) return c >= 'a' && c <= 'z' ? (char) (c & ~0x20) : c;
+        return Character.toUpperCase(c);
+    }
+
+    /**
+     * Cleared builder from the per-thread pool. Nested borrows get distinct builders.
+     * Virtual threads are short-lived, so they get a plain builder instead of a pool of their own.
+     */
+    private static StringBuilder borrowBuilder() {
+        if (Thread.currentThread().isVirtual()) return new StringBuilder(64);
+        StringBuilder[] free = POOL.get();
+        if (free != null) {
+            for (int i = POOL_SIZE - 1; i >= 0; i--) {
+                StringBuilder sb = free[i];
+                if (sb != null) {
+                    free[i] = null;
+                    sb.setLength(0);
+                    return sb;
+                }
+            }
+        }
+        return new StringBuilder(64);
+    }
+
+    /**
+     * Returns the builder's contents and puts it back into the pool. The builder must not be used afterwards.
+     * Oversized builders are dropped instead of pooled.
+     */
+    private static String release(StringBuilder sb) {
+        String result = sb.toString();
+        if (Thread.currentThread().isVirtual() || sb.capacity() > POOLED_CAPACITY_LIMIT) return result;
+        StringBuilder[] free = POOL.get();
+        if (free == null) {
+            free = new StringBuilder[POOL_SIZE];
+            POOL.set(free);
+        }
+        int empty = -1;
+        for (int i = 0; i < POOL_SIZE; i++) {
+            // pooling the same builder twice would hand it to two borrowers
+            if (free[i] == sb) return result;
+            if (free[i] == null && empty < 0) empty = i;
+        }
+        if (empty >= 0) free[empty] = sb;
+        return result;
+    }
 }
@@ -0,0 +1,48 @@
+package com.dractical.femutils.core.time;
+
+import java.time.Instant;
+
+/**
+ * Time source for code that reads the time in hot paths or needs to be tested deterministically.
+ * {@link #millis()} is wall-clock time, {@link #nanoTime()} is monotonic and only meaningful as a difference.
+ */
+public interface Clock {
+    static Clock system() {
+        return SystemClock.INSTANCE;
+    }
+
+    /**
+     * Shared clock updated every millisecond by a daemon thread. Reading it is a volatile load.
+     * The thread runs until {@link CoarseClock#stopShared()}, plugins usually want a
+     * {@link CoarseClock#manual()} clock updated from a tick task instead.
+     */
+    static Clock coarse() {
+        return CoarseClock.shared();
+    }
+
+    static FakeClock fake() {
+        return new FakeClock();
+    }
+
+    long millis();
+
+    long nanoTime();
+
+    default Instant instant() {
+        return Instant.ofEpochMilli(millis());
+    }
+
+    /**
+     * Milliseconds since the given epoch millis of this clock, negative if it is in the future.
+     */
+    default long sinceMillis(long pastMillis) {
+        return millis() - pastMillis;
+    }
+
+    /**
+     * Milliseconds until the given epoch millis of this clock, negative if it has passed.
+     */
+    default long untilMillis(long futureMillis) {
+        return futureMillis - millis();
+    }
+}
@@ -0,0 +1,117 @@
+package com.dractical.femutils.core.time;
+
+import com.dractical.femutils.core.check.Checks;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clock that caches the time and refreshes it at a fixed resolution, so reads are a volatile load
+ * instead of a system call. Either refreshed by its own daemon thread, or {@link #manual() manually},
+ * e.g. by a task that calls {@link #update()} once per server tick.
+ * Plugins should prefer a manual clock driven by their own tick task, since it needs no thread and
+ * goes away with the plugin. The {@link Clock#coarse() shared} clock keeps a thread running until
+ * {@link #stopShared()} is called, e.g. from {@code onDisable}.
+ */
+@SuppressWarnings("unused")
+public final class CoarseClock implements Clock, Closeable {
+    private static volatile CoarseClock shared;
+
+    private volatile long millis;
+    private volatile long nanoTime;
+    // set once the shared clock is stopped, stale handles then read the system time
+    private volatile boolean stopped;
+    private final Thread updater;
+
+    private CoarseClock(long resolutionNanos) {
+        update();
+        if (resolutionNanos <= 0) {
+            this.updater = null;
+            return;
+        }
+        this.updater = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(resolutionNanos);
+                update();
+            }
+        }, "FemUtils CoarseClock");
+        updater.setDaemon(true);
+        updater.start();
+    }
+
+    /**
+     * Clock refreshed every {@code resolution} by a daemon thread. Close it to stop the thread.
+     */
+    public static CoarseClock start(Duration resolution) {
+        Checks.notNull(resolution, "resolution");
+        return new CoarseClock(Checks.positive(resolution.toNanos(), "resolution"));
+    }
+
+    /**
+     * Clock without a thread, only refreshed by {@link #update()}.
+     */
+    public static CoarseClock manual() {
+        return new CoarseClock(0L);
+    }
+
+    static CoarseClock shared() {
+        CoarseClock clock = shared;
+        if (clock == null) {
+            synchronized (CoarseClock.class) {
+                clock = shared;
+                if (clock == null) {
+                    clock = start(Duration.ofMillis(1));
+                    shared = clock;
+                }
+            }
+        }
+        return clock;
+    }
+
+    public void update() {
+        nanoTime = System.nanoTime();
+        millis = System.currentTimeMillis();
+    }
+
+    @Override
+    public long millis() {
+        return stopped ? System.currentTimeMillis() : millis;
+    }
+
+    @Override
+    public long nanoTime() {
+        return stopped ? System.nanoTime() : nanoTime;
+    }
+
+    /**
+     * Stops the shared clock's thread, if it was started. Clocks already handed out fall back to the
+     * system time instead of freezing, the next {@link Clock#coarse()} starts a fresh one.
+     */
+    public static void stopShared() {
+        CoarseClock clock;
+        synchronized (CoarseClock.class) {
+            clock = shared;
+            shared = null;
+        }
+        if (clock != null) {
+            clock.stopped = true;
+            if (clock.updater != null) {
+                clock.updater.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stops the updater thread. The shared clock cannot be closed, use {@link #stopShared()}.
+     */
+    @Override
+    public void close() {
+        if (this == shared) {
+            throw new IllegalStateException("The shared clock cannot be closed, use CoarseClock.stopShared()");
+        }
+        if (updater != null) {
+            updater.interrupt();
+        }
+    }
+}
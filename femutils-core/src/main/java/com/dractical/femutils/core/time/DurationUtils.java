@@ -1,6 +1,7 @@
 package com.dractical.femutils.core.time;
 
 import com.dractical.femutils.core.check.Checks;
+import com.dractical.femutils.core.result.Result;
 
 import java.time.Duration;
 
@@ -9,6 +10,44 @@
  */
 @SuppressWarnings("unused")
 public final class DurationUtils {
+    public static final long MILLIS_PER_TICK = 50L;
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long MILLIS_PER_WEEK = 604_800_000L;
+    private static final int MAX_UNIT_LENGTH = 8;
+    private static final int MAX_FRACTION_DIGITS = 9;
+    private static final long MALFORMED = -1L;
+    private static final long OVERFLOW = -2L;
+    private static final Duration MAX_FORMATTABLE = Duration.ofMillis(Long.MAX_VALUE).plusNanos(999_999L);
+    private static final long UNIT_MS = pack("ms");
+    private static final long UNIT_T = pack("t");
+    private static final long UNIT_TICK = pack("tick");
+    private static final long UNIT_TICKS = pack("ticks");
+    private static final long UNIT_S = pack("s");
+    private static final long UNIT_SEC = pack("sec");
+    private static final long UNIT_SECS = pack("secs");
+    private static final long UNIT_SECOND = pack("second");
+    private static final long UNIT_SECONDS = pack("seconds");
+    private static final long UNIT_M = pack("m");
+    private static final long UNIT_MIN = pack("min");
+    private static final long UNIT_MINS = pack("mins");
+    private static final long UNIT_MINUTE = pack("minute");
+    private static final long UNIT_MINUTES = pack("minutes");
+    private static final long UNIT_H = pack("h");
+    private static final long UNIT_HR = pack("hr");
+    private static final long UNIT_HRS = pack("hrs");
+    private static final long UNIT_HOUR = pack("hour");
+    private static final long UNIT_HOURS = pack("hours");
+    private static final long UNIT_D = pack("d");
+    private static final long UNIT_DAY = pack("day");
+    private static final long UNIT_DAYS = pack("days");
+    private static final long UNIT_W = pack("w");
+    private static final long UNIT_WK = pack("wk");
+    private static final long UNIT_WKS = pack("wks");
+    private static final long UNIT_WEEK = pack("week");
+    private static final long UNIT_WEEKS = pack("weeks");
 
     private DurationUtils() {
         throw new AssertionError("No " + DurationUtils.class.getName() + " instances");
@@ -32,6 +71,66 @@ public static long toSeconds(Duration d) {
         return d.getSeconds();
     }
 
+    /**
+     * Parses expressions like "10s", "1h30m", "1.5h", "2w 3d" or "500ms". Units are ms, t/tick(s),
+     * s/sec(s)/second(s), m/min(s)/minute(s), h/hr(s)/hour(s), d/day(s) and w/wk(s)/week(s), in any case.
+     * Fractions below a millisecond are truncated.
+     */
+    public static Result<Duration> parse(CharSequence text) {
+        long millis = parseInternal(text);
+        if (millis >= 0) {
+            return Result.ok(Duration.ofMillis(millis));
+        }
+        String reason = millis == OVERFLOW ? "Duration too large: " : "Bad duration: ";
+        return Result.error(new IllegalArgumentException(reason + text));
+    }
+
+    /**
+     * Allocation-free form of {@link #parse}, returning the millis or -1 if the text is malformed or overflows.
+     */
+    public static long parseMillis(CharSequence text) {
+        long millis = parseInternal(text);
+        return millis >= 0 ? millis : -1L;
+    }
+
+    /**
+     * Compact format that {@link #parse} reads back, e.g. "1h30m" or "2d500ms".
+     *
+     * @throws IllegalArgumentException if the duration is negative or longer than {@link #parse} accepts
+     */
+    public static String format(Duration duration) {
+        Checks.notNull(duration, "duration");
+        Checks.argument(!duration.isNegative(), "duration must not be negative");
+        Checks.argument(duration.compareTo(MAX_FORMATTABLE) <= 0, "duration too large");
+        long millis = duration.toMillis();
+        if (millis == 0) return "0s";
+        StringBuilder sb = new StringBuilder(16);
+        millis = appendUnit(sb, millis, MILLIS_PER_DAY, 'd');
+        millis = appendUnit(sb, millis, MILLIS_PER_HOUR, 'h');
+        millis = appendUnit(sb, millis, MILLIS_PER_MINUTE, 'm');
+        millis = appendUnit(sb, millis, MILLIS_PER_SECOND, 's');
+        if (millis != 0) sb.append(millis).append("ms");
+        return sb.toString();
+    }
+
+    /**
+     * Duration of the given number of server ticks (50ms each).
+     */
+    public static Duration ofTicks(long ticks) {
+        return Duration.ofMillis(Math.multiplyExact(ticks, MILLIS_PER_TICK));
+    }
+
+    /**
+     * Converts to server ticks, rounding partial ticks up. Negative durations become 0.
+     */
+    public static long toTicks(Duration d) {
+        Checks.notNull(d, "d");
+        if (d.isNegative() || d.isZero()) return 0L;
+        long millis = d.toMillis();
+        long ticks = millis / MILLIS_PER_TICK + (millis % MILLIS_PER_TICK == 0 ? 0 : 1);
+        return Math.max(ticks, 1L);
+    }
+
     public static boolean isZeroOrNegative(Duration d) {
         Checks.notNull(d, "d");
         return d.isNegative() || d.isZero();
@@ -146,4 +245,105 @@ public static String prettyApprox(Duration duration) {
     private static String prefixSign(boolean negative, String s) {
         return negative ? "-" + s : s;
     }
+
+    private static long appendUnit(StringBuilder sb, long millis, long unit, char suffix) {
+        long count = millis / unit;
+        if (count != 0) sb.append(count).append(suffix);
+        return millis - count * unit;
+    }
+
+    /**
+     * Single pass over the text: number, optional fraction, optional spaces, unit, repeated.
+     * Returns the millis, or {@link #MALFORMED} / {@link #OVERFLOW}.
+     */
+    private static long parseInternal(CharSequence text) {
+        if (text == null) return MALFORMED;
+        int len = text.length();
+        int pos = 0;
+        long total = 0L;
+        boolean any = false;
+        while (true) {
+            while (pos < len && isSpace(text.charAt(pos))) pos++;
+            if (pos == len) break;
+
+            long whole = 0L;
+            int digits = 0;
+            char c;
+            while (pos < len && (c = text.charAt(pos)) >= '0' && c <= '9') {
+                if (whole > (Long.MAX_VALUE - (c - '0')) / 10) return OVERFLOW;
+                whole = whole * 10 + (c - '0');
+                digits++;
+                pos++;
+            }
+            long fraction = 0L;
+            long scale = 1L;
+            if (pos < len && text.charAt(pos) == '.') {
+                pos++;
+                int fractionDigits = 0;
+                while (pos < len && (c = text.charAt(pos)) >= '0' && c <= '9') {
+                    if (fractionDigits++ < MAX_FRACTION_DIGITS) {
+                        fraction = fraction * 10 + (c - '0');
+                        scale *= 10;
+                    }
+                    digits++;
+                    pos++;
+                }
+            }
+            if (digits == 0) return MALFORMED;
+            while (pos < len && isSpace(text.charAt(pos))) pos++;
+
+            // unit letters packed into a long, lower-cased, at most 8 of them
+            long unit = 0L;
+            int unitLength = 0;
+            while (pos < len && isAsciiLetter(c = text.charAt(pos))) {
+                if (++unitLength > MAX_UNIT_LENGTH) return MALFORMED;
+                unit = (unit << 8) | (c | 0x20);
+                pos++;
+            }
+            long factor = unitMillis(unit);
+            if (factor == 0) return MALFORMED;
+
+            if (whole > Long.MAX_VALUE / factor) return OVERFLOW;
+            long part = whole * factor + fraction * factor / scale;
+            if (part < 0 || total > Long.MAX_VALUE - part) return OVERFLOW;
+            total += part;
+            any = true;
+        }
+        return any ? total : MALFORMED;
+    }
+
+    private static long unitMillis(long unit) {
+        if (unit == UNIT_MS) return 1L;
+        if (unit == UNIT_T || unit == UNIT_TICK || unit == UNIT_TICKS) return MILLIS_PER_TICK;
+        if (unit == UNIT_S || unit == UNIT_SEC || unit == UNIT_SECS || unit == UNIT_SECOND || unit == UNIT_SECONDS) {
+            return MILLIS_PER_SECOND;
+        }
+        if (unit == UNIT_M || unit == UNIT_MIN || unit == UNIT_MINS || unit == UNIT_MINUTE || unit == UNIT_MINUTES) {
+            return MILLIS_PER_MINUTE;
+        }
+        if (unit == UNIT_H || unit == UNIT_HR || unit == UNIT_HRS || unit == UNIT_HOUR || unit == UNIT_HOURS) {
+            return MILLIS_PER_HOUR;
+        }
+        if (unit == UNIT_D || unit == UNIT_DAY || unit == UNIT_DAYS) return MILLIS_PER_DAY;
+        if (unit == UNIT_W || unit == UNIT_WK || unit == UNIT_WKS || unit == UNIT_WEEK || unit == UNIT_WEEKS) {
+            return MILLIS_PER_WEEK;
+        }
+        return 0L;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (char) ((c | 0x20) - 'a') < 26;
+    }
+
+    private static long pack(String unit) {
+        long packed = 0L;
+        for (int i = 0; i < unit.length(); i++) {
+            packed = (packed << 8) | unit.charAt(i);
+        }
+        return packed;
+    }
 }
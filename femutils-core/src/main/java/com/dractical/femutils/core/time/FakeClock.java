@@ -0,0 +1,52 @@
+package com.dractical.femutils.core.time;
+
+import com.dractical.femutils.core.check.Checks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock that only moves when told to, for deterministic tests. Wall-clock and monotonic time
+ * advance together.
+ */
+@SuppressWarnings("unused")
+public final class FakeClock implements Clock {
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicLong epochOffsetMillis = new AtomicLong();
+
+    FakeClock() {
+    }
+
+    @Override
+    public long millis() {
+        return epochOffsetMillis.get() + nanos.get() / 1_000_000L;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos.get();
+    }
+
+    public FakeClock advance(Duration duration) {
+        Checks.notNull(duration, "duration");
+        Checks.argument(!duration.isNegative(), "duration must not be negative");
+        nanos.addAndGet(duration.toNanos());
+        return this;
+    }
+
+    public FakeClock advanceMillis(long millis) {
+        Checks.nonNegative(millis, "millis");
+        nanos.addAndGet(millis * 1_000_000L);
+        return this;
+    }
+
+    /**
+     * Sets the wall-clock time. Monotonic time is not affected.
+     */
+    public FakeClock setInstant(Instant instant) {
+        Checks.notNull(instant, "instant");
+        epochOffsetMillis.set(instant.toEpochMilli() - nanos.get() / 1_000_000L);
+        return this;
+    }
+}
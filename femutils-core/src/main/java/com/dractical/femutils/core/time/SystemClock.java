@@ -0,0 +1,18 @@
+package com.dractical.femutils.core.time;
+
+/**
+ * Reads {@link System#currentTimeMillis()} and {@link System#nanoTime()} on every call.
+ */
+enum SystemClock implements Clock {
+    INSTANCE;
+
+    @Override
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+}
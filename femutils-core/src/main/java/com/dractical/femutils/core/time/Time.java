@@ -158,6 +158,31 @@ public static Duration until(Instant future) {
         return between(nowUtc(), Checks.notNull(future, "future"));
     }
 
+    /**
+     * Milliseconds since the given epoch millis, without allocating. Negative if it is in the future.
+     */
+    public static long sinceMillis(long pastEpochMillis) {
+        return System.currentTimeMillis() - pastEpochMillis;
+    }
+
+    /**
+     * Milliseconds until the given epoch millis, without allocating. Negative if it has passed.
+     */
+    public static long untilMillis(long futureEpochMillis) {
+        return futureEpochMillis - System.currentTimeMillis();
+    }
+
+    /**
+     * Same as {@link #sinceMillis(long)} on the given clock, e.g. {@link Clock#coarse()} in hot paths.
+     */
+    public static long sinceMillis(Clock clock, long pastEpochMillis) {
+        return Checks.notNull(clock, "clock").sinceMillis(pastEpochMillis);
+    }
+
+    public static long untilMillis(Clock clock, long futureEpochMillis) {
+        return Checks.notNull(clock, "clock").untilMillis(futureEpochMillis);
+    }
+
     /**
      * Truncate an Instant to whole seconds (no nanos).
      */
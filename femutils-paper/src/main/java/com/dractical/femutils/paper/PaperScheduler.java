@@ -0,0 +1,358 @@
+package com.dractical.femutils.paper;
+
+import com.dractical.femutils.core.check.Checks;
+import com.dractical.femutils.core.time.DurationUtils;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Scheduler facade that routes to the Folia region schedulers when running on Folia,
+ * and to the {@link org.bukkit.scheduler.BukkitScheduler} otherwise.
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public final class PaperScheduler {
+    private static final boolean FOLIA = detectFolia();
+
+    private final Plugin plugin;
+    private final Queue<Runnable> batchQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger batchPending = new AtomicInteger();
+
+    public PaperScheduler(Plugin plugin) {
+        this.plugin = Checks.notNull(plugin, "plugin");
+    }
+
+    public static boolean isFolia() {
+        return FOLIA;
+    }
+
+    public Plugin plugin() {
+        return plugin;
+    }
+
+    /**
+     * Runs on the next tick of the main thread (Paper) or the global region (Folia).
+     */
+    public Task runGlobal(Runnable task) {
+        Checks.notNull(task, "task");
+        if (FOLIA) {
+            return wrap(Bukkit.getGlobalRegionScheduler().run(plugin, t -> task.run()));
+        }
+        return wrap(Bukkit.getScheduler().runTask(plugin, task));
+    }
+
+    public Task runGlobalLater(Runnable task, Duration delay) {
+        Checks.notNull(task, "task");
+        long ticks = delayTicks(delay);
+        if (FOLIA) {
+            return wrap(Bukkit.getGlobalRegionScheduler().runDelayed(plugin, t -> task.run(), ticks));
+        }
+        return wrap(Bukkit.getScheduler().runTaskLater(plugin, task, ticks));
+    }
+
+    public Task runGlobalTimer(Runnable task, Duration delay, Duration period) {
+        Checks.notNull(task, "task");
+        long ticks = delayTicks(delay);
+        long periodTicks = delayTicks(period);
+        if (FOLIA) {
+            return wrap(Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, t -> task.run(), ticks, periodTicks));
+        }
+        return wrap(Bukkit.getScheduler().runTaskTimer(plugin, task, ticks, periodTicks));
+    }
+
+    /**
+     * Runs on the thread owning the region of the given location.
+     */
+    public Task runAt(Location location, Runnable task) {
+        Checks.notNull(location, "location");
+        Checks.notNull(task, "task");
+        if (FOLIA) {
+            return wrap(Bukkit.getRegionScheduler().run(plugin, location, t -> task.run()));
+        }
+        return wrap(Bukkit.getScheduler().runTask(plugin, task));
+    }
+
+    public Task runAtLater(Location location, Runnable task, Duration delay) {
+        Checks.notNull(location, "location");
+        Checks.notNull(task, "task");
+        long ticks = delayTicks(delay);
+        if (FOLIA) {
+            return wrap(Bukkit.getRegionScheduler().runDelayed(plugin, location, t -> task.run(), ticks));
+        }
+        return wrap(Bukkit.getScheduler().runTaskLater(plugin, task, ticks));
+    }
+
+    public Task runAtTimer(Location location, Runnable task, Duration delay, Duration period) {
+        Checks.notNull(location, "location");
+        Checks.notNull(task, "task");
+        long ticks = delayTicks(delay);
+        long periodTicks = delayTicks(period);
+        if (FOLIA) {
+            return wrap(Bukkit.getRegionScheduler().runAtFixedRate(plugin, location, t -> task.run(), ticks, periodTicks));
+        }
+        return wrap(Bukkit.getScheduler().runTaskTimer(plugin, task, ticks, periodTicks));
+    }
+
+    /**
+     * Runs on the thread owning the entity. The task is dropped if the entity is removed first.
+     */
+    public Task run(Entity entity, Runnable task) {
+        Checks.notNull(entity, "entity");
+        Checks.notNull(task, "task");
+        if (FOLIA) {
+            return wrap(entity.getScheduler().run(plugin, t -> task.run(), null));
+        }
+        return wrap(Bukkit.getScheduler().runTask(plugin, whileValid(entity, task)));
+    }
+
+    public Task runLater(Entity entity, Runnable task, Duration delay) {
+        Checks.notNull(entity, "entity");
+        Checks.notNull(task, "task");
+        long ticks = delayTicks(delay);
+        if (FOLIA) {
+            return wrap(entity.getScheduler().runDelayed(plugin, t -> task.run(), null, ticks));
+        }
+        return wrap(Bukkit.getScheduler().runTaskLater(plugin, whileValid(entity, task), ticks));
+    }
+
+    public Task runTimer(Entity entity, Runnable task, Duration delay, Duration period) {
+        Checks.notNull(entity, "entity");
+        Checks.notNull(task, "task");
+        long ticks = delayTicks(delay);
+        long periodTicks = delayTicks(period);
+        if (FOLIA) {
+            return wrap(entity.getScheduler().runAtFixedRate(plugin, t -> task.run(), null, ticks, periodTicks));
+        }
+        return wrap(Bukkit.getScheduler().runTaskTimer(plugin, whileValid(entity, task), ticks, periodTicks));
+    }
+
+    public Task runAsync(Runnable task) {
+        Checks.notNull(task, "task");
+        if (FOLIA) {
+            return wrap(Bukkit.getAsyncScheduler().runNow(plugin, t -> task.run()));
+        }
+        return wrap(Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
+    }
+
+    public Task runAsyncLater(Runnable task, Duration delay) {
+        Checks.notNull(task, "task");
+        Checks.notNull(delay, "delay");
+        if (FOLIA) {
+            long millis = Math.max(delay.toMillis(), 0L);
+            return wrap(Bukkit.getAsyncScheduler().runDelayed(plugin, t -> task.run(), millis, TimeUnit.MILLISECONDS));
+        }
+        return wrap(Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, task, DurationUtils.toTicks(delay)));
+    }
+
+    public Task runAsyncTimer(Runnable task, Duration delay, Duration period) {
+        Checks.notNull(task, "task");
+        Checks.notNull(delay, "delay");
+        Checks.notNull(period, "period");
+        if (FOLIA) {
+            long millis = Math.max(delay.toMillis(), 0L);
+            long periodMillis = Math.max(period.toMillis(), 1L);
+            return wrap(Bukkit.getAsyncScheduler().runAtFixedRate(plugin, t -> task.run(), millis, periodMillis, TimeUnit.MILLISECONDS));
+        }
+        return wrap(Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, DurationUtils.toTicks(delay), delayTicks(period)));
+    }
+
+    /**
+     * Queues a small task for the global thread. Everything queued before the next tick
+     * runs inside a single scheduler task instead of one task each.
+     */
+    public void batch(Runnable task) {
+        Checks.notNull(task, "task");
+        batchQueue.add(task);
+        if (batchPending.getAndIncrement() == 0) {
+            runGlobal(this::drainBatch);
+        }
+    }
+
+    /**
+     * True if the current thread may touch the entity.
+     */
+    public boolean isOwnedByCurrentThread(Entity entity) {
+        return Bukkit.isOwnedByCurrentRegion(Checks.notNull(entity, "entity"));
+    }
+
+    /**
+     * True if the current thread is the main thread (Paper) or the global region thread (Folia).
+     */
+    public boolean isGlobalThread() {
+        return Bukkit.isGlobalTickThread();
+    }
+
+    /**
+     * Runs the supplier on the thread owning the entity, inline if already there.
+     */
+    public <T> CompletableFuture<T> supply(Entity entity, Supplier<T> task) {
+        Checks.notNull(entity, "entity");
+        Checks.notNull(task, "task");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (isOwnedByCurrentThread(entity)) {
+            complete(future, task);
+            return future;
+        }
+        if (FOLIA) {
+            ScheduledTask scheduled = entity.getScheduler().run(plugin, t -> complete(future, task),
+                    () -> future.completeExceptionally(new IllegalStateException("Entity was removed before the task ran")));
+            if (scheduled == null) {
+                future.completeExceptionally(new IllegalStateException("Entity is no longer valid"));
+            }
+            return future;
+        }
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (entity.isValid()) {
+                complete(future, task);
+            } else {
+                future.completeExceptionally(new IllegalStateException("Entity was removed before the task ran"));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs the supplier on the global thread, inline if already there.
+     */
+    public <T> CompletableFuture<T> supplyGlobal(Supplier<T> task) {
+        Checks.notNull(task, "task");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (isGlobalThread()) {
+            complete(future, task);
+        } else {
+            runGlobal(() -> complete(future, task));
+        }
+        return future;
+    }
+
+    /**
+     * Cancels global and async tasks of the plugin. Region and entity tasks on Folia cannot be
+     * cancelled in bulk and have to be cancelled through their {@link Task}.
+     */
+    public void cancelAll() {
+        if (FOLIA) {
+            Bukkit.getGlobalRegionScheduler().cancelTasks(plugin);
+            Bukkit.getAsyncScheduler().cancelTasks(plugin);
+        } else {
+            Bukkit.getScheduler().cancelTasks(plugin);
+        }
+        batchQueue.clear();
+        batchPending.set(0);
+    }
+
+    private void drainBatch() {
+        int count = batchPending.get();
+        for (int i = 0; i < count; i++) {
+            Runnable task = batchQueue.poll();
+            if (task == null) break;
+            try {
+                task.run();
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.SEVERE, "Batched task failed", t);
+            }
+        }
+        if (batchPending.updateAndGet(pending -> Math.max(pending - count, 0)) > 0) {
+            runGlobal(this::drainBatch);
+        }
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, Supplier<T> task) {
+        try {
+            future.complete(task.get());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+
+    private static Runnable whileValid(Entity entity, Runnable task) {
+        return () -> {
+            if (entity.isValid()) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Delay in ticks, at least 1 since the region schedulers reject 0.
+     */
+    private static long delayTicks(Duration delay) {
+        Checks.notNull(delay, "delay");
+        return Math.max(DurationUtils.toTicks(delay), 1L);
+    }
+
+    private static Task wrap(BukkitTask task) {
+        return new BukkitHandle(task);
+    }
+
+    private static Task wrap(ScheduledTask task) {
+        return task == null ? Task.NONE : new FoliaHandle(task);
+    }
+
+    private static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Handle to a scheduled task.
+     */
+    public interface Task {
+        /**
+         * Returned when the task could not be scheduled, such as for a removed entity.
+         */
+        Task NONE = new Task() {
+            @Override
+            public void cancel() {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        };
+
+        void cancel();
+
+        boolean isCancelled();
+    }
+
+    private record BukkitHandle(BukkitTask task) implements Task {
+        @Override
+        public void cancel() {
+            task.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return task.isCancelled();
+        }
+    }
+
+    private record FoliaHandle(ScheduledTask task) implements Task {
+        @Override
+        public void cancel() {
+            task.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return task.isCancelled();
+        }
+    }
+}
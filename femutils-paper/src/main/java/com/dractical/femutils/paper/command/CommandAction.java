@@ -2,6 +2,9 @@
 
 import com.dractical.femutils.core.result.Result;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * Functional interface for command executors that return a {@link Result}.
  */
@@ -12,4 +15,11 @@ public interface CommandAction {
      * Executes the command.
      */
     Result<Void> execute(CommandContext context);
+
+    /**
+     * Executes the command on the given executor.
+     */
+    default CompletableFuture<Result<Void>> executeAsync(CommandContext context, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> execute(context), executor);
+    }
 }
@@ -2,14 +2,20 @@
 
 import com.dractical.femutils.core.check.Checks;
 import com.dractical.femutils.core.result.Result;
+import com.dractical.femutils.core.text.StringUtils;
+import com.dractical.femutils.paper.PaperScheduler;
 import com.dractical.femutils.paper.lang.Lang;
 import org.bukkit.Bukkit;
 import org.bukkit.command.*;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
@@ -32,7 +38,10 @@ public final class CommandBuilder {
     private String playersOnlyMessage;
     private String consoleOnlyMessage;
     private String invalidUsageMessage;
+    private String cooldownMessage;
 
+    private Throttle throttle;
+    private Executor asyncExecutor;
     private CommandAction executor;
     private TabCompleter tabCompleter;
     private final List<Subcommand> subcommands = new ArrayList<>();
@@ -96,6 +105,46 @@ public CommandBuilder invalidUsageMessage(String message) {
         return this;
     }
 
+    public CommandBuilder cooldownMessage(String message) {
+        this.cooldownMessage = message;
+        return this;
+    }
+
+    /**
+     * Limits each sender to one use per {@code cooldown}. Applies to subcommands as well.
+     */
+    public CommandBuilder cooldown(Duration cooldown) {
+        return throttle(Throttle.cooldown(cooldown));
+    }
+
+    /**
+     * Limits each sender to {@code permits} uses per {@code per}. Applies to subcommands as well.
+     */
+    public CommandBuilder rateLimit(int permits, Duration per) {
+        return throttle(Throttle.rateLimit(permits, per));
+    }
+
+    /**
+     * Uses a shared throttle, so several commands can draw from the same per-sender budget.
+     */
+    public CommandBuilder throttle(Throttle throttle) {
+        this.throttle = throttle;
+        return this;
+    }
+
+    /**
+     * Runs the executor off the server thread, use {@link CommandContext#sync(Runnable)} for Bukkit calls.
+     * Subcommands keep their own setting.
+     */
+    public CommandBuilder async() {
+        return async(PaperCommands.asyncExecutor());
+    }
+
+    public CommandBuilder async(Executor executor) {
+        this.asyncExecutor = Checks.notNull(executor, "executor");
+        return this;
+    }
+
     public CommandBuilder exec(Consumer<CommandContext> executor) {
         Checks.notNull(executor, "executor");
         this.executor = ctx -> {
@@ -180,10 +229,12 @@ private void registerSubcommand(Subcommand subcommand) {
     private static final class InternalExecutor implements CommandExecutor, TabCompleter {
 
         private final Plugin plugin;
+        private final PaperScheduler scheduler;
         private final CommandBuilder meta;
 
         InternalExecutor(Plugin plugin, CommandBuilder meta) {
             this.plugin = plugin;
+            this.scheduler = new PaperScheduler(plugin);
             this.meta = meta;
         }
 
@@ -203,76 +254,124 @@ public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command
                 return true;
             }
 
-            CommandContext ctx = new CommandContext(
-                    plugin,
-                    sender,
-                    command,
-                    label,
-                    args,
-                    meta.invalidUsageMessage,
-                    meta.usage
-            );
+            // everything that can reject the sender runs before a context is allocated
+            Subcommand subcommand = findSubcommand(args);
+            if (subcommand != null) {
+                if (!checkSubcommand(sender, subcommand)) {
+                    return true;
+                }
+            } else if (meta.executor == null) {
+                if (!meta.subcommands.isEmpty()) {
+                    CommandMessages.sendInvalidUsage(sender, meta.invalidUsageMessage, meta.usage, label);
+                }
+                return true;
+            }
+            // permits are only taken once the command is certain to run
+            if (!acquire(sender, meta.throttle, subcommand != null ? subcommand.throttle : null)) {
+                return true;
+            }
+
+            CommandContext ctx;
+            CommandAction action;
+            Executor async;
+            if (subcommand != null) {
+                ctx = new CommandContext(
+                        scheduler,
+                        sender,
+                        command,
+                        label,
+                        sliceArgs(args, 1),
+                        subcommand.invalidUsageMessage != null ? subcommand.invalidUsageMessage : meta.invalidUsageMessage,
+                        subcommand.usage != null ? subcommand.usage : meta.usage
+                );
+                action = subcommand.executor;
+                async = subcommand.asyncExecutor;
+            } else {
+                ctx = new CommandContext(
+                        scheduler,
+                        sender,
+                        command,
+                        label,
+                        args,
+                        meta.invalidUsageMessage,
+                        meta.usage
+                );
+                action = meta.executor;
+                async = meta.asyncExecutor;
+            }
 
             try {
-                Result<Void> result = dispatch(ctx);
-                handleResult(sender, result);
+                if (async == null) {
+                    handleResult(sender, action.execute(ctx));
+                } else {
+                    action.executeAsync(ctx, async).whenComplete((result, error) -> {
+                        if (error != null) {
+                            handleUnhandled(sender, label, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                        } else {
+                            handleResult(sender, result);
+                        }
+                    });
+                }
             } catch (Throwable t) {
-                plugin.getLogger().severe("Unhandled exception in command /" + label + ": " + t.getMessage());
-                //noinspection CallToPrintStackTrace
-                t.printStackTrace();
-                Lang.send(sender, "<red>An internal error occurred while executing this command.</red>");
+                handleUnhandled(sender, label, t);
             }
             return true;
         }
 
-        private Result<Void> dispatch(CommandContext ctx) {
-            if (!meta.subcommands.isEmpty()) {
-                Result<Void> subResult = trySubcommand(ctx);
-                if (subResult != null) {
-                    return subResult;
-                }
-                if (meta.executor == null) {
-                    ctx.invalidUsage();
-                    return Result.ok(null);
-                }
-            }
-            return meta.executor != null ? meta.executor.execute(ctx) : Result.ok(null);
+        private void handleUnhandled(CommandSender sender, String label, Throwable t) {
+            plugin.getLogger().severe("Unhandled exception in command /" + label + ": " + t.getMessage());
+            //noinspection CallToPrintStackTrace
+            t.printStackTrace();
+            Lang.send(sender, "<red>An internal error occurred while executing this command.</red>");
         }
 
-        private Result<Void> trySubcommand(CommandContext ctx) {
-            if (ctx.argsLength() == 0) {
-                return null;
-            }
-            Subcommand subcommand = meta.subcommandLookup.get(ctx.arg(0).toLowerCase(Locale.ROOT));
-            if (subcommand == null) {
+        private Subcommand findSubcommand(String[] args) {
+            if (meta.subcommands.isEmpty() || args.length == 0) {
                 return null;
             }
+            return meta.subcommandLookup.get(args[0].toLowerCase(Locale.ROOT));
+        }
 
-            CommandSender sender = ctx.sender();
+        private boolean checkSubcommand(CommandSender sender, Subcommand subcommand) {
             if (subcommand.permission != null && !subcommand.permission.isEmpty() && !sender.hasPermission(subcommand.permission)) {
                 CommandMessages.sendNoPermission(sender, meta.noPermissionMessage);
-                return Result.ok(null);
+                return false;
             }
             if (subcommand.playerOnly && !(sender instanceof Player)) {
                 CommandMessages.sendPlayersOnly(sender, meta.playersOnlyMessage);
-                return Result.ok(null);
+                return false;
             }
             if (subcommand.consoleOnly && sender instanceof Player) {
                 CommandMessages.sendConsoleOnly(sender, meta.consoleOnlyMessage);
-                return Result.ok(null);
+                return false;
             }
+            return true;
+        }
 
-            String[] newArgs = sliceArgs(ctx.args(), 1);
-            CommandContext child = new CommandContext(
-                    ctx.plugin(),
-                    sender,
-                    ctx.command(),
-                    ctx.label(),
-                    newArgs,
-                    subcommand.invalidUsageMessage != null ? subcommand.invalidUsageMessage : meta.invalidUsageMessage,
-                    subcommand.usage != null ? subcommand.usage : meta.usage
-            );
-            return subcommand.executor.execute(child);
+        /**
+         * Takes a permit from the subcommand throttle, then from the root throttle. If the root rejects,
+         * the subcommand permit is refunded, so neither is consumed unless both allow it.
+         * Only entity senders are throttled, console and command blocks are exempt.
+         */
+        private boolean acquire(CommandSender sender, Throttle root, Throttle sub) {
+            if ((root == null && sub == null) || !(sender instanceof Entity entity)) {
+                return true;
+            }
+            UUID id = entity.getUniqueId();
+            long msb = id.getMostSignificantBits();
+            long lsb = id.getLeastSignificantBits();
+            long wait = sub != null ? sub.acquire(msb, lsb) : 0L;
+            if (wait == 0L && root != null) {
+                wait = root.acquire(msb, lsb);
+                if (wait != 0L && sub != null) {
+                    sub.refund(msb, lsb);
+                }
+            }
+            if (wait == 0L) {
+                return true;
+            }
+            CommandMessages.sendCooldown(sender, meta.cooldownMessage, wait);
+            return false;
         }
 
         private List<String> subcommandNames(CommandSender sender) {
@@ -339,10 +438,9 @@ private List<String> filterPrefix(List<String> values, String token) {
             if (token == null || token.isEmpty()) {
                 return values;
             }
-            String lower = token.toLowerCase(Locale.ROOT);
             List<String> matches = new ArrayList<>();
             for (String value : values) {
-                if (value.toLowerCase(Locale.ROOT).startsWith(lower)) {
+                if (StringUtils.startsWithIgnoreCase(value, token)) {
                     matches.add(value);
                 }
             }
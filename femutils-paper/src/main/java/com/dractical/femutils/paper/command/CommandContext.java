@@ -3,6 +3,7 @@
 import com.dractical.femutils.core.check.Checks;
 import com.dractical.femutils.core.text.StringUtils;
 import com.dractical.femutils.core.time.DurationUtils;
+import com.dractical.femutils.paper.PaperScheduler;
 import com.dractical.femutils.paper.lang.Lang;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -10,11 +11,14 @@
 import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import java.time.Duration;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Gives access to sender, args, and common argument parsers.
@@ -23,6 +27,7 @@
 public final class CommandContext {
 
     private final Plugin plugin;
+    private final PaperScheduler scheduler;
     private final CommandSender sender;
     private final Command command;
     private final String label;
@@ -30,8 +35,9 @@ public final class CommandContext {
     private final String invalidUsageMessage;
     private final String usage;
 
-    CommandContext(Plugin plugin, CommandSender sender, Command command, String label, String[] args, String invalidUsageMessage, String usage) {
-        this.plugin = Checks.notNull(plugin, "plugin");
+    CommandContext(PaperScheduler scheduler, CommandSender sender, Command command, String label, String[] args, String invalidUsageMessage, String usage) {
+        this.scheduler = Checks.notNull(scheduler, "scheduler");
+        this.plugin = scheduler.plugin();
         this.sender = Checks.notNull(sender, "sender");
         this.command = Checks.notNull(command, "command");
         this.label = label;
@@ -44,6 +50,10 @@ public Plugin plugin() {
         return plugin;
     }
 
+    public PaperScheduler scheduler() {
+        return scheduler;
+    }
+
     public CommandSender sender() {
         return sender;
     }
@@ -112,6 +122,29 @@ public void error(String message) {
         }
     }
 
+    /**
+     * Runs the task on the thread that owns the sender: the entity's thread for entities,
+     * the global thread otherwise. Runs inline if already on that thread.
+     */
+    public CompletableFuture<Void> sync(Runnable task) {
+        Checks.notNull(task, "task");
+        return supplySync(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Same as {@link #sync(Runnable)}, completing with the supplied value.
+     */
+    public <T> CompletableFuture<T> supplySync(Supplier<T> task) {
+        Checks.notNull(task, "task");
+        if (sender instanceof Entity entity) {
+            return scheduler.supply(entity, task);
+        }
+        return scheduler.supplyGlobal(task);
+    }
+
     /**
      * Online player by name. Returns null if missing.
      */
@@ -160,67 +193,16 @@ public <E extends Enum<E>> E argEnum(int index, Class<E> enumClass) {
     }
 
     /**
-     * Parses duration expressions like "10s", "5m", "2h", "1d", "1h30m", "500ms"
+     * Parses duration expressions like "10s", "5m", "2h", "1d", "1h30m", "1.5h", "500ms".
+     * See {@link DurationUtils#parse}. Returns null if the argument is missing or invalid.
      */
     public Duration argDuration(int index) {
         String raw = arg(index);
         if (raw == null || raw.isEmpty()) {
             return null;
         }
-        return parseDuration(raw);
-    }
-
-    /**
-     * Internal lightweight duration parser.
-     */
-    private Duration parseDuration(String text) {
-        String s = text.trim().toLowerCase(Locale.ROOT);
-        if (s.isEmpty()) return null;
-
-        long totalMillis = 0L;
-        int len = s.length();
-        int pos = 0;
-
-        while (pos < len) {
-            int startNum = pos;
-            while (pos < len && Character.isDigit(s.charAt(pos))) {
-                pos++;
-            }
-            if (startNum == pos) {
-                return null;
-            }
-            long value;
-            try {
-                value = Long.parseLong(s.substring(startNum, pos));
-            } catch (NumberFormatException ex) {
-                return null;
-            }
-
-            int startUnit = pos;
-            while (pos < len && Character.isLetter(s.charAt(pos))) {
-                pos++;
-            }
-            if (startUnit == pos) {
-                return null;
-            }
-            String unit = s.substring(startUnit, pos);
-
-            long factor;
-            switch (unit) {
-                case "ms" -> factor = 1L;
-                case "s", "sec", "secs" -> factor = 1000L;
-                case "m", "min", "mins" -> factor = 60_000L;
-                case "h", "hr", "hrs" -> factor = 3_600_000L;
-                case "d", "day", "days" -> factor = 86_400_000L;
-                default -> {
-                    return null;
-                }
-            }
-
-            totalMillis += value * factor;
-        }
-
-        return Duration.ofMillis(totalMillis);
+        long millis = DurationUtils.parseMillis(raw);
+        return millis < 0 ? null : Duration.ofMillis(millis);
     }
 
     /**
@@ -1,8 +1,11 @@
 package com.dractical.femutils.paper.command;
 
+import com.dractical.femutils.core.time.DurationUtils;
 import com.dractical.femutils.paper.lang.Lang;
 import org.bukkit.command.CommandSender;
 
+import java.time.Duration;
+
 /**
  * Command messages.
  */
@@ -11,6 +14,7 @@ public final class CommandMessages {
     public static final String DEFAULT_PLAYERS_ONLY = "<red>This command can only be used by players.</red>";
     public static final String DEFAULT_CONSOLE_ONLY = "<red>This command can only be used from console.</red>";
     public static final String DEFAULT_INVALID_USAGE = "<red>Invalid usage.</red>";
+    public static final String DEFAULT_COOLDOWN = "<red>Please wait <remaining> before using this command again.</red>";
 
     private CommandMessages() {
         throw new AssertionError("No " + CommandMessages.class.getName() + " instances");
@@ -28,6 +32,14 @@ public static void sendConsoleOnly(CommandSender sender, String message) {
         Lang.send(sender, message != null ? message : DEFAULT_CONSOLE_ONLY);
     }
 
+    /**
+     * Sends the cooldown message, {@code <remaining>} is replaced with the time left.
+     */
+    public static void sendCooldown(CommandSender sender, String message, long remainingNanos) {
+        String remaining = DurationUtils.prettyApprox(Duration.ofNanos(Math.max(remainingNanos, 1_000_000L)));
+        Lang.send(sender, message != null ? message : DEFAULT_COOLDOWN, Lang.placeholder("remaining", remaining));
+    }
+
     public static void sendInvalidUsage(CommandSender sender, String baseMessage, String usage, String label) {
         String msg = baseMessage != null ? baseMessage : DEFAULT_INVALID_USAGE;
         if (usage != null && !usage.isEmpty()) {
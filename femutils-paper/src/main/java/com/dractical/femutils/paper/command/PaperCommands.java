@@ -5,6 +5,9 @@
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import org.bukkit.command.TabCompleter;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
 /**
@@ -36,6 +39,13 @@ public static TabCompleter tab(Consumer<PaperTabCompleter.Builder> dsl) {
         return builder.build();
     }
 
+    /**
+     * Executor used by {@code async()} commands, one virtual thread per invocation.
+     */
+    public static Executor asyncExecutor() {
+        return AsyncHolder.EXECUTOR;
+    }
+
     public static Result<Void> success() {
         return Result.ok(null);
     }
@@ -43,4 +53,8 @@ public static Result<Void> success() {
     public static Result<Void> fail(String message, TagResolver... resolvers) {
         return Result.error(CommandException.mm(message, resolvers));
     }
+
+    private static final class AsyncHolder {
+        private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    }
 }
@@ -1,5 +1,6 @@
 package com.dractical.femutils.paper.command;
 
+import com.dractical.femutils.core.text.StringUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.command.Command;
@@ -44,9 +45,8 @@ public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Comman
         }
 
         List<String> filtered = new ArrayList<>();
-        String lower = token.toLowerCase(Locale.ROOT);
         for (String suggestion : suggestions) {
-            if (suggestion.toLowerCase(Locale.ROOT).startsWith(lower)) {
+            if (StringUtils.startsWithIgnoreCase(suggestion, token)) {
                 filtered.add(suggestion);
             }
         }
@@ -1,9 +1,10 @@
 package com.dractical.femutils.paper.command;
 
+import com.dractical.femutils.core.text.StringUtils;
 import org.bukkit.command.TabCompleter;
 
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.Executor;
 
 /**
  * Subcommand definition.
@@ -21,6 +22,8 @@ final class Subcommand {
     final String usage;
     final String invalidUsageMessage;
     final TabCompleter tabCompleter;
+    final Throttle throttle;
+    final Executor asyncExecutor;
 
     Subcommand(SubcommandBuilder builder) {
         this.name = builder.name;
@@ -33,18 +36,19 @@ final class Subcommand {
         this.usage = builder.usage;
         this.invalidUsageMessage = builder.invalidUsageMessage;
         this.tabCompleter = builder.tabCompleter;
+        this.throttle = builder.throttle;
+        this.asyncExecutor = builder.asyncExecutor;
     }
 
     boolean matches(String input) {
         if (input == null) {
             return false;
         }
-        String normalized = input.toLowerCase(Locale.ROOT);
-        if (name.equalsIgnoreCase(normalized)) {
+        if (StringUtils.equalsIgnoreCase(name, input)) {
             return true;
         }
         for (String alias : aliases) {
-            if (alias.equalsIgnoreCase(normalized)) {
+            if (StringUtils.equalsIgnoreCase(alias, input)) {
                 return true;
             }
         }
@@ -4,9 +4,11 @@
 import com.dractical.femutils.core.result.Result;
 import org.bukkit.command.TabCompleter;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
@@ -25,6 +27,8 @@ public final class SubcommandBuilder {
     String usage;
     String invalidUsageMessage;
     TabCompleter tabCompleter;
+    Throttle throttle;
+    Executor asyncExecutor;
 
     SubcommandBuilder(String name) {
         this.name = Checks.notBlank(name, "name");
@@ -69,6 +73,40 @@ public SubcommandBuilder invalidUsageMessage(String message) {
         return this;
     }
 
+    /**
+     * Limits each sender to one use of this subcommand per {@code cooldown}.
+     */
+    public SubcommandBuilder cooldown(Duration cooldown) {
+        return throttle(Throttle.cooldown(cooldown));
+    }
+
+    /**
+     * Limits each sender to {@code permits} uses of this subcommand per {@code per}.
+     */
+    public SubcommandBuilder rateLimit(int permits, Duration per) {
+        return throttle(Throttle.rateLimit(permits, per));
+    }
+
+    /**
+     * Uses a shared throttle, so several commands can draw from the same per-sender budget.
+     */
+    public SubcommandBuilder throttle(Throttle throttle) {
+        this.throttle = throttle;
+        return this;
+    }
+
+    /**
+     * Runs the executor off the server thread, use {@link CommandContext#sync(Runnable)} for Bukkit calls.
+     */
+    public SubcommandBuilder async() {
+        return async(PaperCommands.asyncExecutor());
+    }
+
+    public SubcommandBuilder async(Executor executor) {
+        this.asyncExecutor = Checks.notNull(executor, "executor");
+        return this;
+    }
+
     public SubcommandBuilder exec(Consumer<CommandContext> executor) {
         Checks.notNull(executor, "executor");
         this.executor = ctx -> {
@@ -0,0 +1,260 @@
+package com.dractical.femutils.paper.command;
+
+import com.dractical.femutils.core.check.Checks;
+import com.dractical.femutils.core.time.Clock;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Per-sender cooldown / token bucket keyed by UUID.
+ * Implemented as GCRA: every sender is a single "theoretical arrival time" stored in striped
+ * open-addressing tables of primitive longs, so there are no per-entry objects.
+ * Expired entries are reclaimed lazily when their slot is reused or the table is rehashed.
+ */
+@SuppressWarnings("unused")
+public final class Throttle {
+    private static final int SEGMENT_SHIFT = 28;
+    private static final int SEGMENT_COUNT = 1 << (32 - SEGMENT_SHIFT);
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Clock clock;
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    private Throttle(long intervalNanos, long burstNanos, Clock clock) {
+        this.clock = Checks.notNull(clock, "clock");
+        this.intervalNanos = intervalNanos;
+        this.burstNanos = burstNanos;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * One use per sender every {@code cooldown}.
+     */
+    public static Throttle cooldown(Duration cooldown) {
+        return cooldown(cooldown, Clock.system());
+    }
+
+    /**
+     * Same as {@link #cooldown(Duration)} reading time from {@code clock}.
+     */
+    public static Throttle cooldown(Duration cooldown, Clock clock) {
+        Checks.notNull(cooldown, "cooldown");
+        return new Throttle(Checks.positive(cooldown.toNanos(), "cooldown"), 0L, clock);
+    }
+
+    /**
+     * Token bucket allowing {@code permits} uses per {@code per}, refilled continuously.
+     */
+    public static Throttle rateLimit(int permits, Duration per) {
+        return rateLimit(permits, per, Clock.system());
+    }
+
+    /**
+     * Same as {@link #rateLimit(int, Duration)} reading time from {@code clock}.
+     */
+    public static Throttle rateLimit(int permits, Duration per, Clock clock) {
+        Checks.positive(permits, "permits");
+        Checks.notNull(per, "per");
+        long interval = Checks.positive(per.toNanos() / permits, "per / permits");
+        return new Throttle(interval, interval * (permits - 1), clock);
+    }
+
+    /**
+     * Consumes a permit for the sender if one is available.
+     */
+    public boolean tryAcquire(UUID id) {
+        Checks.notNull(id, "id");
+        return acquire(id.getMostSignificantBits(), id.getLeastSignificantBits()) == 0L;
+    }
+
+    /**
+     * Time until the sender can acquire again, zero if a permit is available now.
+     */
+    public Duration remaining(UUID id) {
+        Checks.notNull(id, "id");
+        return Duration.ofNanos(remainingNanos(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+    }
+
+    /**
+     * Nanos until the sender can acquire again without consuming a permit, zero if one is available now.
+     */
+    long remainingNanos(long msb, long lsb) {
+        int hash = hash(msb, lsb);
+        return segmentFor(hash).remaining(msb, lsb, hash, clock.nanoTime(), burstNanos);
+    }
+
+    /**
+     * Forgets the sender, restoring a full bucket.
+     */
+    public void reset(UUID id) {
+        Checks.notNull(id, "id");
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        segmentFor(hash).reset(msb, lsb, hash, clock.nanoTime());
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Consumes a permit and returns 0, or returns the nanos left until one is available.
+     */
+    long acquire(long msb, long lsb) {
+        int hash = hash(msb, lsb);
+        return segmentFor(hash).acquire(msb, lsb, hash, clock.nanoTime(), intervalNanos, burstNanos);
+    }
+
+    /**
+     * Gives back a permit taken by {@link #acquire(long, long)}, e.g. when a second throttle rejected the use.
+     */
+    void refund(long msb, long lsb) {
+        int hash = hash(msb, lsb);
+        segmentFor(hash).refund(msb, lsb, hash, intervalNanos);
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[hash >>> SEGMENT_SHIFT];
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Segment {
+        // msb/lsb pairs interleaved, tats[i] belongs to keys[2i], keys[2i + 1]
+        private long[] keys = new long[INITIAL_CAPACITY * 2];
+        private long[] tats = emptyTats(INITIAL_CAPACITY);
+        private int used;
+
+        synchronized long acquire(long msb, long lsb, int hash, long now, long interval, long burst) {
+            int mask = tats.length - 1;
+            int reusable = -1;
+            int i = hash & mask;
+            while (true) {
+                long tat = tats[i];
+                if (tat == EMPTY) {
+                    break;
+                }
+                if (keys[i << 1] == msb && keys[(i << 1) + 1] == lsb) {
+                    long base = tat - now > 0 ? tat : now;
+                    long wait = base - now - burst;
+                    if (wait > 0) {
+                        return wait;
+                    }
+                    tats[i] = base + interval;
+                    return 0L;
+                }
+                if (reusable < 0 && tat - now <= 0) {
+                    reusable = i;
+                }
+                i = (i + 1) & mask;
+            }
+
+            if (reusable >= 0) {
+                i = reusable;
+            } else if ((used + 1) * 4 > tats.length * 3) {
+                rehash(now);
+                return acquire(msb, lsb, hash, now, interval, burst);
+            } else {
+                used++;
+            }
+            keys[i << 1] = msb;
+            keys[(i << 1) + 1] = lsb;
+            tats[i] = now + interval;
+            return 0L;
+        }
+
+        synchronized long remaining(long msb, long lsb, int hash, long now, long burst) {
+            int slot = find(msb, lsb, hash);
+            if (slot < 0) {
+                return 0L;
+            }
+            return Math.max(0L, tats[slot] - now - burst);
+        }
+
+        synchronized void refund(long msb, long lsb, int hash, long interval) {
+            int slot = find(msb, lsb, hash);
+            if (slot >= 0) {
+                // GCRA permits are additive, taking the interval back undoes exactly one acquire
+                tats[slot] -= interval;
+            }
+        }
+
+        synchronized void reset(long msb, long lsb, int hash, long now) {
+            int slot = find(msb, lsb, hash);
+            if (slot >= 0) {
+                // keep the slot occupied so probe chains stay intact, it is reused once expired
+                tats[slot] = now;
+            }
+        }
+
+        synchronized void clear() {
+            keys = new long[INITIAL_CAPACITY * 2];
+            tats = emptyTats(INITIAL_CAPACITY);
+            used = 0;
+        }
+
+        private int find(long msb, long lsb, int hash) {
+            int mask = tats.length - 1;
+            int i = hash & mask;
+            while (tats[i] != EMPTY) {
+                if (keys[i << 1] == msb && keys[(i << 1) + 1] == lsb) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void rehash(long now) {
+            long[] oldKeys = keys;
+            long[] oldTats = tats;
+            int live = 0;
+            for (long tat : oldTats) {
+                if (tat != EMPTY && tat - now > 0) live++;
+            }
+            int capacity = INITIAL_CAPACITY;
+            while ((live + 1) * 2 > capacity) {
+                capacity <<= 1;
+            }
+
+            long[] newKeys = new long[capacity * 2];
+            long[] newTats = emptyTats(capacity);
+            int mask = capacity - 1;
+            for (int j = 0; j < oldTats.length; j++) {
+                long tat = oldTats[j];
+                if (tat == EMPTY || tat - now <= 0) continue;
+                long msb = oldKeys[j << 1];
+                long lsb = oldKeys[(j << 1) + 1];
+                int i = hash(msb, lsb) & mask;
+                while (newTats[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                newKeys[i << 1] = msb;
+                newKeys[(i << 1) + 1] = lsb;
+                newTats[i] = tat;
+            }
+            keys = newKeys;
+            tats = newTats;
+            used = live;
+        }
+
+        private static long[] emptyTats(int capacity) {
+            long[] tats = new long[capacity];
+            Arrays.fill(tats, EMPTY);
+            return tats;
+        }
+    }
+}
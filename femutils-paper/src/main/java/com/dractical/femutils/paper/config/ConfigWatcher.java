@@ -0,0 +1,172 @@
+package com.dractical.femutils.paper.config;
+
+import com.dractical.femutils.core.config.ConfigHandle;
+import com.dractical.femutils.core.config.Fingerprints;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reloads config handles when their file changes, using one {@link WatchService} thread for all handles.
+ * Bursts of write events are debounced, and files whose content hash is unchanged, or is what the
+ * engine itself last wrote, are not reloaded. Reloads hold the engine's lock for the file, so they never
+ * interleave with a save. Files are parsed on the watcher thread, listeners run on the executor given per handle.
+ */
+final class ConfigWatcher implements Closeable {
+    private static final long IDLE_POLL_MILLIS = 1000L;
+
+    private final Logger logger;
+    private final SimpleYamlEngine engine;
+    private final long debounceNanos;
+    private final WatchService service;
+    private final Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    ConfigWatcher(String name, Logger logger, SimpleYamlEngine engine, Duration debounce) throws IOException {
+        this.logger = Objects.requireNonNull(logger, "logger");
+        this.engine = Objects.requireNonNull(engine, "engine");
+        this.debounceNanos = Objects.requireNonNull(debounce, "debounce").toNanos();
+        this.service = FileSystems.getDefault().newWatchService();
+        this.thread = new Thread(this::loop, "FemUtils Config Watcher - " + name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void watch(ConfigHandle<?> handle, Executor listenerExecutor) throws IOException {
+        Path file = handle.path().toAbsolutePath().normalize();
+        Path dir = file.getParent();
+        if (dir == null) {
+            throw new IOException("Cannot watch " + file + " without a parent directory");
+        }
+        if (!directories.containsKey(dir)) {
+            directories.put(dir, dir.register(service,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY));
+        }
+        entries.put(file, new Entry(handle, listenerExecutor, hash(file)));
+    }
+
+    void unwatch(ConfigHandle<?> handle) {
+        entries.remove(handle.path().toAbsolutePath().normalize());
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        service.close();
+        thread.interrupt();
+    }
+
+    private void loop() {
+        while (running) {
+            WatchKey key;
+            try {
+                key = service.poll(nextWaitMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            if (key != null) {
+                collect(key);
+            }
+            reloadDue();
+        }
+    }
+
+    private void collect(WatchKey key) {
+        Path dir = (Path) key.watchable();
+        long deadline = System.nanoTime() + debounceNanos;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                for (Map.Entry<Path, Entry> e : entries.entrySet()) {
+                    if (dir.equals(e.getKey().getParent())) e.getValue().deadline = deadline;
+                }
+                continue;
+            }
+            Entry entry = entries.get(dir.resolve((Path) event.context()));
+            if (entry != null) {
+                entry.deadline = deadline;
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(dir);
+        }
+    }
+
+    private void reloadDue() {
+        long now = System.nanoTime();
+        for (Map.Entry<Path, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.deadline == 0L || entry.deadline - now > 0) continue;
+            entry.deadline = 0L;
+            reload(e.getKey(), entry);
+        }
+    }
+
+    private void reload(Path file, Entry entry) {
+        synchronized (engine.lock(file)) {
+            long hash;
+            try {
+                hash = hash(file);
+            } catch (IOException e) {
+                return;
+            }
+            if (hash == entry.hash) {
+                return;
+            }
+            if (engine.isOwnContent(file, hash)) {
+                // written by a save through the engine, the handle already holds these values
+                entry.hash = hash;
+                return;
+            }
+            try {
+                entry.handle.reload(entry.listenerExecutor);
+                entry.hash = hash;
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Failed to reload " + file.getFileName() + ", keeping the previous values", e);
+            }
+        }
+    }
+
+    private long nextWaitMillis() {
+        long now = System.nanoTime();
+        long wait = TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS);
+        for (Entry entry : entries.values()) {
+            if (entry.deadline != 0L) {
+                wait = Math.min(wait, entry.deadline - now);
+            }
+        }
+        return Math.max(TimeUnit.NANOSECONDS.toMillis(wait), 1L);
+    }
+
+    private static long hash(Path file) throws IOException {
+        if (Files.notExists(file)) {
+            return 0L;
+        }
+        return Fingerprints.hash(Files.readAllBytes(file));
+    }
+
+    private static final class Entry {
+        final ConfigHandle<?> handle;
+        final Executor listenerExecutor;
+        // only touched by the watcher thread after registration
+        long hash;
+        long deadline;
+
+        Entry(ConfigHandle<?> handle, Executor listenerExecutor, long hash) {
+            this.handle = handle;
+            this.listenerExecutor = listenerExecutor;
+            this.hash = hash;
+        }
+    }
+}
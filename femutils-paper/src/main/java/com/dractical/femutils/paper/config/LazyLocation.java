@@ -0,0 +1,147 @@
+package com.dractical.femutils.paper.config;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Immutable location whose world is looked up on first access instead of on load, so configs
+ * can load before their worlds exist. The resolved world is cached while Bukkit still has it loaded.
+ */
+@SuppressWarnings("unused")
+public final class LazyLocation {
+    private final String worldName;
+    private final UUID worldId;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final float yaw;
+    private final float pitch;
+    private volatile WeakReference<World> resolved;
+
+    /**
+     * At least one of {@code worldName} and {@code worldId} must be set. The id wins when both are.
+     */
+    public LazyLocation(String worldName, UUID worldId, double x, double y, double z, float yaw, float pitch) {
+        if (worldName == null && worldId == null) {
+            throw new IllegalArgumentException("worldName or worldId required");
+        }
+        this.worldName = worldName;
+        this.worldId = worldId;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.yaw = yaw;
+        this.pitch = pitch;
+    }
+
+    public LazyLocation(String worldName, double x, double y, double z) {
+        this(Objects.requireNonNull(worldName, "worldName"), null, x, y, z, 0f, 0f);
+    }
+
+    public static LazyLocation of(Location location) {
+        Objects.requireNonNull(location, "location");
+        World world = Objects.requireNonNull(location.getWorld(), "world");
+        return new LazyLocation(world.getName(), world.getUID(),
+                location.getX(), location.getY(), location.getZ(), location.getYaw(), location.getPitch());
+    }
+
+    public String worldName() {
+        return worldName;
+    }
+
+    public UUID worldId() {
+        return worldId;
+    }
+
+    public double x() {
+        return x;
+    }
+
+    public double y() {
+        return y;
+    }
+
+    public double z() {
+        return z;
+    }
+
+    public float yaw() {
+        return yaw;
+    }
+
+    public float pitch() {
+        return pitch;
+    }
+
+    /**
+     * The world, or null if it is not loaded.
+     */
+    public World world() {
+        WeakReference<World> ref = resolved;
+        World cached = ref == null ? null : ref.get();
+        // an unloaded world is no longer registered, so the lookup no longer returns the cached instance
+        if (cached != null && Bukkit.getWorld(cached.getUID()) == cached) {
+            return cached;
+        }
+        World world = worldId != null ? Bukkit.getWorld(worldId) : null;
+        if (world == null && worldName != null) {
+            world = Bukkit.getWorld(worldName);
+        }
+        resolved = world == null ? null : new WeakReference<>(world);
+        return world;
+    }
+
+    public boolean isWorldLoaded() {
+        return world() != null;
+    }
+
+    /**
+     * A new {@link Location}, since locations are mutable.
+     *
+     * @throws IllegalStateException if the world is not loaded
+     */
+    public Location toLocation() {
+        World world = world();
+        if (world == null) {
+            throw new IllegalStateException("Unknown world: " + (worldName != null ? worldName : worldId));
+        }
+        return new Location(world, x, y, z, yaw, pitch);
+    }
+
+    /**
+     * Like {@link #toLocation()}, but null if the world is not loaded.
+     */
+    public Location toLocationOrNull() {
+        World world = world();
+        return world == null ? null : new Location(world, x, y, z, yaw, pitch);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LazyLocation other)) return false;
+        return Double.compare(x, other.x) == 0
+                && Double.compare(y, other.y) == 0
+                && Double.compare(z, other.z) == 0
+                && Float.compare(yaw, other.yaw) == 0
+                && Float.compare(pitch, other.pitch) == 0
+                && Objects.equals(worldName, other.worldName)
+                && Objects.equals(worldId, other.worldId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(worldName, worldId, x, y, z, yaw, pitch);
+    }
+
+    @Override
+    public String toString() {
+        return "LazyLocation{" + (worldName != null ? worldName : worldId)
+                + ", " + x + ", " + y + ", " + z + ", " + yaw + ", " + pitch + "}";
+    }
+}
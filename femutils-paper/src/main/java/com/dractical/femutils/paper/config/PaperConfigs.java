@@ -1,32 +1,49 @@
 package com.dractical.femutils.paper.config;
 
 import com.dractical.femutils.core.config.ConfigHandle;
+import com.dractical.femutils.core.config.LoadBatch;
 import com.dractical.femutils.core.config.TypeRegistry;
+import com.dractical.femutils.paper.PaperScheduler;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 @SuppressWarnings("unused")
-public final class PaperConfigs {
+public final class PaperConfigs implements Closeable {
+    private static final Duration WATCH_DEBOUNCE = Duration.ofMillis(300);
+
     private final JavaPlugin plugin;
     private final TypeRegistry registry = new TypeRegistry();
     private final SimpleYamlEngine engine;
+    private final PaperScheduler scheduler;
+    private ConfigWatcher watcher;
 
     public PaperConfigs(JavaPlugin plugin) {
         this.plugin = Objects.requireNonNull(plugin, "plugin");
         PaperSerializers.registerAll(registry);
         this.engine = new SimpleYamlEngine(registry);
+        this.scheduler = new PaperScheduler(plugin);
     }
 
     public TypeRegistry registry() {
         return registry;
     }
 
+    /**
+     * Number of config saves skipped because nothing changed.
+     */
+    public long skippedWrites() {
+        return engine.skippedWrites();
+    }
+
     public <T> ConfigHandle<T> create(String fileName, Class<T> type, Supplier<T> defaults) throws IOException {
         Path path = plugin.getDataFolder().toPath().resolve(fileName);
         if (Files.notExists(path)) {
@@ -38,4 +55,58 @@ public <T> ConfigHandle<T> create(String fileName, Class<T> type, Supplier<T> de
         }
         return new ConfigHandle<>(path, type, defaults, engine);
     }
+
+    /**
+     * Registers a config with the batch instead of loading it right away.
+     */
+    public <T> LoadBatch.Entry<ConfigHandle<T>> create(LoadBatch batch, String fileName, Class<T> type, Supplier<T> defaults) {
+        return batch.add(fileName, () -> create(fileName, type, defaults));
+    }
+
+    /**
+     * Loads every registered file concurrently and logs how long each one took.
+     */
+    public LoadBatch.Report loadParallel(LoadBatch batch) throws IOException {
+        LoadBatch.Report report = batch.run();
+        plugin.getLogger().info("Loaded " + report.timings().size() + " files in " + report.total().toMillis() + "ms");
+        report.timings().forEach((name, time) -> plugin.getLogger().fine("  " + name + ": " + time.toMillis() + "ms"));
+        return report;
+    }
+
+    /**
+     * Reloads the handle whenever its file changes on disk, with listeners run on the main thread.
+     */
+    public void watch(ConfigHandle<?> handle) throws IOException {
+        watch(handle, true);
+    }
+
+    /**
+     * Reloads the handle whenever its file changes on disk. The file is parsed on the watcher thread
+     * and the new value is published before any listener runs.
+     */
+    public synchronized void watch(ConfigHandle<?> handle, boolean listenersOnMainThread) throws IOException {
+        Objects.requireNonNull(handle, "handle");
+        if (watcher == null) {
+            watcher = new ConfigWatcher(plugin.getName(), plugin.getLogger(), engine, WATCH_DEBOUNCE);
+        }
+        Executor executor = listenersOnMainThread ? scheduler::runGlobal : Runnable::run;
+        watcher.watch(handle, executor);
+    }
+
+    public synchronized void unwatch(ConfigHandle<?> handle) {
+        if (watcher != null) {
+            watcher.unwatch(Objects.requireNonNull(handle, "handle"));
+        }
+    }
+
+    /**
+     * Stops the file watcher, call from {@code onDisable} if any handle is watched.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
 }
@@ -6,18 +6,30 @@
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.*;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @SuppressWarnings({"unused", "SameParameterValue"})
 public final class PaperSerializers {
+    private static final int INTERN_LIMIT = 4096;
+    private static final Object WORLDS = new Object();
+    private static volatile int worldGeneration;
+    private static volatile Plugin worldListenerOwner;
+    private static volatile boolean providerResolved;
+    private static Plugin provider;
     public static final TypeSerializer<UUID> UUID_SER = new TypeSerializer<>() {
         @Override
         public UUID deserialize(Object raw, ReflectMapper ctx, Class<UUID> type) {
@@ -54,8 +66,7 @@ private int num(Map<?, ?> m, String key, int def) {
         @Override
         public NamespacedKey deserialize(Object raw, ReflectMapper ctx, Class<NamespacedKey> type) {
             if (raw == null) return null;
-            String s = raw.toString();
-            return NamespacedKey.fromString(s.contains(":") ? s : "minecraft:" + s);
+            return intern(ctx, this, raw.toString(), s -> NamespacedKey.fromString(s.contains(":") ? s : "minecraft:" + s));
         }
 
         @Override
@@ -69,7 +80,7 @@ public Location deserialize(Object raw, ReflectMapper ctx, Class<Location> type)
             if (!(raw instanceof Map<?, ?> m)) throw new IllegalArgumentException("Location must be a map");
             String world = Objects.toString(m.get("world"), null);
             if (world == null) throw new IllegalArgumentException("Missing world");
-            World w = Bukkit.getWorld(world);
+            World w = world(ctx, world);
             if (w == null) throw new IllegalArgumentException("Unknown world: " + world);
             return new Location(w,
                     get(m, "x"), get(m, "y"), get(m, "z"),
@@ -97,10 +108,44 @@ private double get(Map<?, ?> m, String key, double def) {
             return v instanceof Number n ? n.doubleValue() : (v != null ? Double.parseDouble(v.toString()) : def);
         }
     };
+    /**
+     * Same shape as {@link #LOCATION}, plus an optional {@code world-uuid}. The world is not looked up.
+     */
+    public static final TypeSerializer<LazyLocation> LAZY_LOCATION = new TypeSerializer<>() {
+        @Override
+        public LazyLocation deserialize(Object raw, ReflectMapper ctx, Class<LazyLocation> type) {
+            if (raw == null) return null;
+            if (!(raw instanceof Map<?, ?> m)) throw new IllegalArgumentException("Location must be a map");
+            String world = Objects.toString(m.get("world"), null);
+            Object id = m.get("world-uuid");
+            if (world == null && id == null) throw new IllegalArgumentException("Missing world");
+            return new LazyLocation(world, id == null ? null : UUID.fromString(id.toString()),
+                    get(m, "x", 0.0), get(m, "y", 0.0), get(m, "z", 0.0),
+                    (float) get(m, "yaw", 0f), (float) get(m, "pitch", 0f));
+        }
+
+        @Override
+        public Object serialize(LazyLocation loc, ReflectMapper ctx) {
+            Map<String, Object> out = new LinkedHashMap<>();
+            if (loc.worldName() != null) out.put("world", loc.worldName());
+            if (loc.worldId() != null) out.put("world-uuid", loc.worldId().toString());
+            out.put("x", loc.x());
+            out.put("y", loc.y());
+            out.put("z", loc.z());
+            out.put("yaw", loc.yaw());
+            out.put("pitch", loc.pitch());
+            return out;
+        }
+
+        private double get(Map<?, ?> m, String key, double def) {
+            Object v = m.get(key);
+            return v instanceof Number n ? n.doubleValue() : (v != null ? Double.parseDouble(v.toString()) : def);
+        }
+    };
     public static final TypeSerializer<Material> MATERIAL = new TypeSerializer<>() {
         @Override
         public Material deserialize(Object raw, ReflectMapper ctx, Class<Material> type) {
-            return raw == null ? null : Material.matchMaterial(raw.toString());
+            return raw == null ? null : intern(ctx, this, raw.toString(), Material::matchMaterial);
         }
 
         @Override
@@ -112,7 +157,7 @@ public Object serialize(Material value, ReflectMapper ctx) {
     public static final TypeSerializer<Component> COMPONENT = new TypeSerializer<>() {
         @Override
         public Component deserialize(Object raw, ReflectMapper ctx, Class<Component> type) {
-            return raw == null ? Component.empty() : MM.deserialize(raw.toString());
+            return raw == null ? Component.empty() : intern(ctx, this, raw.toString(), s -> MM.deserialize(s));
         }
 
         @Override
@@ -120,38 +165,106 @@ public Object serialize(Component value, ReflectMapper ctx) {
             return MM.serialize(value);
         }
     };
-    private static final Pattern DUR = Pattern.compile("(\\d+)([smhdw])", Pattern.CASE_INSENSITIVE);
-    public static final TypeSerializer<Duration> DURATION = new TypeSerializer<>() {
-        @Override
-        public Duration deserialize(Object raw, ReflectMapper ctx, Class<Duration> type) {
-            if (raw == null) return Duration.ZERO;
-            if (raw instanceof Number n) return Duration.ofSeconds(n.longValue());
-            Matcher m = DUR.matcher(raw.toString().trim());
-            if (!m.find()) throw new IllegalArgumentException("Bad duration: " + raw);
-            m.reset();
-            long secs = 0;
-            while (m.find()) {
-                long n = Long.parseLong(m.group(1));
-                secs += switch (m.group(2).toLowerCase()) {
-                    case "s" -> n;
-                    case "m" -> n * 60;
-                    case "h" -> n * 3600;
-                    case "d" -> n * 86400;
-                    case "w" -> n * 604800;
-                    default -> 0;
-                };
-            }
-            return Duration.ofSeconds(secs);
+    /**
+     * Same as the built-in {@link TypeRegistry#DURATION}, numbers are seconds.
+     */
+    public static final TypeSerializer<Duration> DURATION = TypeRegistry.DURATION;
+
+    private PaperSerializers() {
+    }
+
+    /**
+     * Drops cached worlds from every mapper when a world unloads. The plugin must be enabled.
+     * Optional: world lookups register the listener themselves once the plugin that ships this
+     * class is enabled, and until then they skip the cache.
+     */
+    public static synchronized void trackWorldUnloads(Plugin plugin) {
+        Objects.requireNonNull(plugin, "plugin");
+        if (isTrackingWorlds()) {
+            return;
         }
+        plugin.getServer().getPluginManager().registerEvents(new WorldUnloadListener(), plugin);
+        worldListenerOwner = plugin;
+        // worlds may have unloaded while nothing was listening
+        invalidateWorlds();
+    }
 
-        @Override
-        public Object serialize(Duration value, ReflectMapper ctx) {
-            long secs = value.getSeconds();
-            return (secs % 60 == 0) ? (secs / 60) + "m" : secs + "s";
+    public static void invalidateWorlds() {
+        worldGeneration++;
+    }
+
+    /**
+     * Looks the value up once per mapper and returns the shared instance for repeats.
+     * Misses are not cached, and the cache is cleared once it reaches its limit.
+     */
+    private static <V> V intern(ReflectMapper ctx, Object owner, String key, Function<String, V> lookup) {
+        if (ctx == null) return lookup.apply(key);
+        Map<String, V> cache = ctx.internCache(owner);
+        V cached = cache.get(key);
+        if (cached != null) return cached;
+        V value = lookup.apply(key);
+        if (value != null) {
+            if (cache.size() >= INTERN_LIMIT) cache.clear();
+            cache.put(key, value);
         }
-    };
+        return value;
+    }
 
-    private PaperSerializers() {
+    private static World world(ReflectMapper ctx, String name) {
+        if (ctx == null || !isTrackingWorlds() && !tryTrackWorlds()) return Bukkit.getWorld(name);
+        Map<String, CachedWorld> cache = ctx.internCache(WORLDS);
+        int generation = worldGeneration;
+        CachedWorld cached = cache.get(name);
+        if (cached != null && cached.generation == generation) return cached.world;
+        World world = Bukkit.getWorld(name);
+        if (world == null) {
+            cache.remove(name);
+        } else {
+            cache.put(name, new CachedWorld(world, generation));
+        }
+        return world;
+    }
+
+    private record CachedWorld(World world, int generation) {
+    }
+
+    private static boolean isTrackingWorlds() {
+        Plugin owner = worldListenerOwner;
+        return owner != null && owner.isEnabled();
+    }
+
+    /**
+     * Registers the unload listener for the plugin that ships this class, once it is enabled.
+     */
+    private static boolean tryTrackWorlds() {
+        Plugin plugin = provider();
+        if (plugin == null || !plugin.isEnabled()) return false;
+        trackWorldUnloads(plugin);
+        return true;
+    }
+
+    private static Plugin provider() {
+        if (!providerResolved) {
+            synchronized (PaperSerializers.class) {
+                if (!providerResolved) {
+                    try {
+                        provider = JavaPlugin.getProvidingPlugin(PaperSerializers.class);
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        // not loaded by a plugin class loader
+                        provider = null;
+                    }
+                    providerResolved = true;
+                }
+            }
+        }
+        return provider;
+    }
+
+    private static final class WorldUnloadListener implements Listener {
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onUnload(WorldUnloadEvent event) {
+            invalidateWorlds();
+        }
     }
 
     public static void registerAll(TypeRegistry reg) {
@@ -161,6 +274,7 @@ public static void registerAll(TypeRegistry reg) {
         reg.register(Color.class, COLOR);
         reg.register(NamespacedKey.class, SOUND_KEY);
         reg.register(Location.class, LOCATION);
+        reg.register(LazyLocation.class, LAZY_LOCATION);
         reg.register(Material.class, MATERIAL);
     }
 
@@ -5,131 +5,229 @@
 import org.simpleyaml.configuration.file.YamlFile;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 public final class SimpleYamlEngine implements ConfigHandle.Engine {
     private final ReflectMapper mapper;
     private final TypeRegistry registry;
+    private final Fingerprints fingerprints = new Fingerprints();
+    // parsed file from the last load or save, reused by save to keep comments without re-reading
+    private final Map<Path, YamlFile> models = new ConcurrentHashMap<>();
+    private final Map<Path, Object> locks = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Layout> layouts = new ConcurrentHashMap<>();
+    private volatile int layoutGeneration;
 
     public SimpleYamlEngine(TypeRegistry registry) {
         this.registry = Objects.requireNonNull(registry);
         this.mapper = new ReflectMapper(registry);
+        this.layoutGeneration = registry.generation();
     }
 
     @Override
     public <T> T load(Path path, Class<T> type, Supplier<T> defaults) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        synchronized (lock(key)) {
+            return loadLocked(path, key, type, defaults);
+        }
+    }
+
+    private <T> T loadLocked(Path path, Path key, Class<T> type, Supplier<T> defaults) throws IOException {
         YamlFile yaml = new YamlFile(path.toFile());
         if (Files.notExists(path)) {
             Path parent = path.getParent();
             if (parent != null) {
                 Files.createDirectories(parent);
             }
-            yaml.createNewFile(true);
             T def = defaults.get();
-            writeObject(yaml, "", def, type);
-            yaml.save();
+            writeRoot(yaml, def, type);
+            write(path, yaml);
+            models.put(key, yaml);
             return def;
         }
-        try {
-            yaml.load();
-        } catch (Exception e) {
-            throw new IOException("Failed to load YAML " + path + ": " + e.getMessage(), e);
-        }
+        byte[] bytes = Files.readAllBytes(path);
+        parse(path, yaml, bytes);
         ConfigurationSection section = yaml.getConfigurationSection("");
         Object tree = section != null ? section.getMapValues(false) : new LinkedHashMap<>();
-        return mapper.toObject(tree, type);
+        T result = mapper.toObject(tree, type);
+        fingerprints.record(path, Fingerprints.hash(bytes));
+        models.put(key, yaml);
+        return result;
     }
 
     @Override
     public void save(Path path, Object value) throws IOException {
-        YamlFile yaml = new YamlFile(path.toFile());
+        Path key = path.toAbsolutePath().normalize();
+        synchronized (lock(key)) {
+            saveLocked(path, key, value);
+        }
+    }
+
+    private void saveLocked(Path path, Path key, Object value) throws IOException {
+        YamlFile yaml = models.get(key);
+        if (yaml == null || !fingerprints.isCurrent(path)) {
+            // first save, or the file was edited since: pick up its current comments
+            yaml = new YamlFile(path.toFile());
+            if (Files.exists(path)) {
+                try {
+                    parse(path, yaml, Files.readAllBytes(path));
+                } catch (IOException ignored) {
+                    yaml = new YamlFile(path.toFile());
+                }
+            }
+            models.put(key, yaml);
+        }
+        writeRoot(yaml, value, value.getClass());
+        write(path, yaml);
+    }
+
+    /**
+     * Number of saves skipped because the serialized content matched the file on disk.
+     */
+    public long skippedWrites() {
+        return fingerprints.skippedWrites();
+    }
+
+    /**
+     * Monitor held while a file is loaded or saved. Holding it keeps this engine off the file.
+     */
+    Object lock(Path path) {
+        return locks.computeIfAbsent(path.toAbsolutePath().normalize(), k -> new Object());
+    }
+
+    /**
+     * True if this content hash is what the engine last read from or wrote to the file.
+     */
+    boolean isOwnContent(Path path, long hash) {
+        return fingerprints.matchesRecorded(path, hash);
+    }
+
+    private void parse(Path path, YamlFile yaml, byte[] bytes) throws IOException {
         try {
-            yaml.load();
-        } catch (Exception ignored) {
+            yaml.loadFromString(new String(bytes, StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IOException("Failed to load YAML " + path + ": " + e.getMessage(), e);
         }
-        writeObject(yaml, "", value, value.getClass());
-        yaml.save();
     }
 
-    private void writeObject(YamlFile yaml, String basePath, Object obj, Class<?> type) {
+    private void write(Path path, YamlFile yaml) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = yaml.saveToString().getBytes(StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new IOException("Failed to serialize YAML " + path + ": " + e.getMessage(), e);
+        }
+        long hash = Fingerprints.hash(bytes);
+        if (fingerprints.unchanged(path, hash)) {
+            return;
+        }
+        Files.write(path, bytes);
+        fingerprints.record(path, hash);
+    }
+
+    private void writeRoot(YamlFile yaml, Object obj, Class<?> type) {
         if (obj == null) return;
+        if (isBean(type)) {
+            Layout layout = rootLayout(type);
+            if (layout.header != null) {
+                yaml.setHeader(layout.header);
+            }
+            writeBean(yaml, obj, layout);
+            return;
+        }
+        writeValue(yaml, "", obj, type, null);
+    }
 
-        if (basePath.isEmpty()) {
-            Header headerAnnotation = type.getAnnotation(Header.class);
-            if (headerAnnotation != null) {
-                yaml.setHeader(String.join("\n", headerAnnotation.value()));
+    private void writeBean(YamlFile yaml, Object obj, Layout layout) {
+        for (Node node : layout.nodes) {
+            if (node.comment != null) {
+                yaml.setComment(node.path, node.comment);
             }
+            writeValue(yaml, node.path, node.get(obj), node.rawType, node);
         }
+    }
+
+    private void writeValue(YamlFile yaml, String path, Object obj, Class<?> type, Node node) {
+        if (obj == null) return;
 
-        if (registry.find(type) != null) {
-            yaml.set(basePath, mapper.toTree(obj));
+        if (node != null ? node.registered : registry.find(type) != null) {
+            yaml.set(path, mapper.toTree(obj));
             return;
         }
-
         if (obj instanceof Iterable<?> iterable) {
-            yaml.set(basePath, mapper.toTree(iterable));
+            yaml.set(path, mapper.toTree(iterable));
             return;
         }
         if (obj instanceof Map<?, ?> map) {
-            yaml.set(basePath, mapper.toTree(map));
+            yaml.set(path, mapper.toTree(map));
             return;
         }
         if (type.isArray()) {
-            int length = java.lang.reflect.Array.getLength(obj);
+            int length = Array.getLength(obj);
             List<Object> values = new ArrayList<>(length);
             for (int i = 0; i < length; i++) {
-                values.add(mapper.toTree(java.lang.reflect.Array.get(obj, i)));
+                values.add(mapper.toTree(Array.get(obj, i)));
             }
-            yaml.set(basePath, values);
+            yaml.set(path, values);
             return;
         }
         if (isLeafType(type)) {
             if (obj instanceof Enum<?> enumVal) {
-                yaml.set(basePath, enumVal.name());
+                yaml.set(path, enumVal.name());
                 return;
             }
-            yaml.set(basePath, obj);
+            yaml.set(path, obj);
             return;
         }
+        writeBean(yaml, obj, node != null ? node.child(this) : layout(type, path));
+    }
+
+    private Layout rootLayout(Class<?> type) {
+        int generation = registry.generation();
+        if (generation != layoutGeneration) {
+            // a serializer was registered, cached decisions may be stale
+            layouts.clear();
+            layoutGeneration = generation;
+        }
+        return layouts.computeIfAbsent(type, t -> layout(t, ""));
+    }
 
+    /**
+     * Full paths, joined comments and serializer lookups of a bean type, computed once per prefix.
+     */
+    private Layout layout(Class<?> type, String prefix) {
         ClassIntrospector.ClassMeta meta = ClassIntrospector.get(type);
+        Header header = meta.header();
+        List<Node> nodes = new ArrayList<>();
         if (meta.isRecord()) {
             for (ClassIntrospector.RecordProperty rc : meta.recordProps()) {
-                Object val;
-                try {
-                    val = rc.getter().invoke(obj);
-                } catch (Throwable e) {
-                    throw new RuntimeException(e);
-                }
-                String path = concat(basePath, rc.name());
-                if (rc.comment() != null) {
-                    yaml.setComment(path, String.join("\n", rc.comment().value()));
-                }
-                writeObject(yaml, path, val, rc.rawType());
+                nodes.add(new Node(concat(prefix, rc.name()), joined(rc.comment()), rc.rawType(),
+                        registry.find(rc.rawType()) != null, rc.getter(), null, null));
             }
-            return;
-        }
-
-        for (ClassIntrospector.PojoField f : meta.pojoFields()) {
-            Object val;
-            if (f.handle() != null) {
-                val = f.handle().get(obj);
-            } else {
-                try {
-                    val = f.reflectField().get(obj);
-                } catch (IllegalAccessException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-            String path = concat(basePath, f.name());
-            if (f.comment() != null) {
-                yaml.setComment(path, String.join("\n", f.comment().value()));
+        } else {
+            for (ClassIntrospector.PojoField f : meta.pojoFields()) {
+                nodes.add(new Node(concat(prefix, f.name()), joined(f.comment()), f.rawType(),
+                        registry.find(f.rawType()) != null, null, f.handle(), f.reflectField()));
             }
-            writeObject(yaml, path, val, f.rawType());
         }
+        return new Layout(header != null ? String.join("\n", header.value()) : null, nodes.toArray(new Node[0]));
+    }
+
+    private boolean isBean(Class<?> type) {
+        return registry.find(type) == null
+                && !Iterable.class.isAssignableFrom(type)
+                && !Map.class.isAssignableFrom(type)
+                && !ReflectMapper.isPrimitiveCollection(type)
+                && !type.isArray()
+                && !isLeafType(type);
     }
 
     private boolean isLeafType(Class<?> type) {
@@ -141,7 +239,63 @@ private boolean isLeafType(Class<?> type) {
                 || type.isEnum();
     }
 
-    private String concat(String base, String child) {
+    private static String joined(Comment comment) {
+        return comment != null ? String.join("\n", comment.value()) : null;
+    }
+
+    private static String concat(String base, String child) {
         return base.isEmpty() ? child : base + "." + child;
     }
+
+    private record Layout(String header, Node[] nodes) {
+    }
+
+    private static final class Node {
+        final String path;
+        final String comment;
+        final Class<?> rawType;
+        final boolean registered;
+        final MethodHandle getter;
+        final VarHandle handle;
+        final Field field;
+        private volatile Layout child;
+
+        Node(String path, String comment, Class<?> rawType, boolean registered,
+             MethodHandle getter, VarHandle handle, Field field) {
+            this.path = path;
+            this.comment = comment;
+            this.rawType = rawType;
+            this.registered = registered;
+            this.getter = getter;
+            this.handle = handle;
+            this.field = field;
+        }
+
+        Object get(Object obj) {
+            if (getter != null) {
+                try {
+                    return getter.invoke(obj);
+                } catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            if (handle != null) {
+                return handle.get(obj);
+            }
+            try {
+                return field.get(obj);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        Layout child(SimpleYamlEngine engine) {
+            Layout layout = child;
+            if (layout == null) {
+                layout = engine.layout(rawType, path);
+                child = layout;
+            }
+            return layout;
+        }
+    }
 }
@@ -0,0 +1,19 @@
+package com.dractical.femutils.paper.data;
+
+/**
+ * How {@link PaperDataSerializers} stores item stacks and item arrays. Every format reads the others.
+ */
+public enum ItemFormat {
+    /**
+     * {@code ItemStack.serialize()} maps, readable and hand-editable but large and slow.
+     */
+    MAP,
+    /**
+     * Base64 of {@code ItemStack.serializeAsBytes()}, for YAML and JSON engines.
+     */
+    BASE64,
+    /**
+     * Raw {@code ItemStack.serializeAsBytes()}, for engines with a binary type such as Mongo.
+     */
+    BYTES
+}
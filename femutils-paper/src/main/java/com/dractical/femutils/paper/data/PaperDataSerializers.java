@@ -4,10 +4,16 @@
 import com.dractical.femutils.core.config.TypeRegistry;
 import com.dractical.femutils.core.config.TypeSerializer;
 import com.dractical.femutils.paper.config.PaperSerializers;
+import org.bson.BsonBinary;
+import org.bson.types.Binary;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.Vector;
 
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -19,15 +25,7 @@ private PaperDataSerializers() {
     public static final TypeSerializer<ItemStack> ITEM_STACK = new TypeSerializer<>() {
         @Override
         public ItemStack deserialize(Object raw, ReflectMapper ctx, Class<ItemStack> type) {
-            if (raw == null) return null;
-            if (!(raw instanceof Map<?, ?> map)) {
-                throw new IllegalArgumentException("Expected map for ItemStack");
-            }
-            Map<String, Object> prepared = new LinkedHashMap<>();
-            for (Map.Entry<?, ?> e : map.entrySet()) {
-                prepared.put(Objects.toString(e.getKey()), e.getValue());
-            }
-            return ItemStack.deserialize(prepared);
+            return readItem(raw);
         }
 
         @Override
@@ -36,6 +34,88 @@ public Object serialize(ItemStack value, ReflectMapper ctx) {
         }
     };
 
+    /**
+     * Whole inventories as a list of {@link #ITEM_STACK} maps. Null slots stay null.
+     */
+    public static final TypeSerializer<ItemStack[]> ITEM_STACKS = new TypeSerializer<>() {
+        @Override
+        public ItemStack[] deserialize(Object raw, ReflectMapper ctx, Class<ItemStack[]> type) {
+            return readItems(raw);
+        }
+
+        @Override
+        public Object serialize(ItemStack[] value, ReflectMapper ctx) {
+            if (value == null) return null;
+            List<Object> out = new ArrayList<>(value.length);
+            for (ItemStack item : value) {
+                out.add(ITEM_STACK.serialize(item, ctx));
+            }
+            return out;
+        }
+    };
+
+    /**
+     * Stores stacks as base64 of {@link ItemStack#serializeAsBytes()}, for text engines.
+     * An empty stack is an empty string and reads back as {@link ItemStack#empty()}.
+     */
+    public static final TypeSerializer<ItemStack> ITEM_STACK_BASE64 = new TypeSerializer<>() {
+        @Override
+        public ItemStack deserialize(Object raw, ReflectMapper ctx, Class<ItemStack> type) {
+            return readItem(raw);
+        }
+
+        @Override
+        public Object serialize(ItemStack value, ReflectMapper ctx) {
+            return value == null ? null : Base64.getEncoder().encodeToString(itemBytes(value));
+        }
+    };
+
+    /**
+     * Stores stacks as raw {@link ItemStack#serializeAsBytes()}, for engines with a binary type.
+     * An empty stack is zero bytes and reads back as {@link ItemStack#empty()}.
+     */
+    public static final TypeSerializer<ItemStack> ITEM_STACK_BYTES = new TypeSerializer<>() {
+        @Override
+        public ItemStack deserialize(Object raw, ReflectMapper ctx, Class<ItemStack> type) {
+            return readItem(raw);
+        }
+
+        @Override
+        public Object serialize(ItemStack value, ReflectMapper ctx) {
+            return value == null ? null : itemBytes(value);
+        }
+    };
+
+    /**
+     * Whole inventories in one blob, base64 encoded. Null slots stay null, empty stacks read back as {@link ItemStack#empty()}.
+     */
+    public static final TypeSerializer<ItemStack[]> ITEM_STACKS_BASE64 = new TypeSerializer<>() {
+        @Override
+        public ItemStack[] deserialize(Object raw, ReflectMapper ctx, Class<ItemStack[]> type) {
+            return readItems(raw);
+        }
+
+        @Override
+        public Object serialize(ItemStack[] value, ReflectMapper ctx) {
+            return value == null ? null : Base64.getEncoder().encodeToString(writeItems(value));
+        }
+    };
+
+    /**
+     * Whole inventories in one binary blob. Null slots stay null, empty stacks read back as {@link ItemStack#empty()}.
+     */
+    public static final TypeSerializer<ItemStack[]> ITEM_STACKS_BYTES = new TypeSerializer<>() {
+        @Override
+        public ItemStack[] deserialize(Object raw, ReflectMapper ctx, Class<ItemStack[]> type) {
+            return readItems(raw);
+        }
+
+        @Override
+        public Object serialize(ItemStack[] value, ReflectMapper ctx) {
+            return value == null ? null : writeItems(value);
+        }
+    };
+
     public static final TypeSerializer<Vector> VECTOR = new TypeSerializer<>() {
         @Override
         public Vector deserialize(Object raw, ReflectMapper ctx, Class<Vector> type) {
@@ -58,8 +138,111 @@ private double num(Map<?, ?> map, String key) {
     };
 
     public static void registerAll(TypeRegistry registry) {
+        registerAll(registry, ItemFormat.MAP);
+    }
+
+    public static void registerAll(TypeRegistry registry, ItemFormat itemFormat) {
         PaperSerializers.registerAll(registry);
-        registry.register(ItemStack.class, ITEM_STACK);
+        switch (itemFormat) {
+            case MAP -> {
+                registry.register(ItemStack.class, ITEM_STACK);
+                registry.register(ItemStack[].class, ITEM_STACKS);
+            }
+            case BASE64 -> {
+                registry.register(ItemStack.class, ITEM_STACK_BASE64);
+                registry.register(ItemStack[].class, ITEM_STACKS_BASE64);
+            }
+            case BYTES -> {
+                registry.register(ItemStack.class, ITEM_STACK_BYTES);
+                registry.register(ItemStack[].class, ITEM_STACKS_BYTES);
+            }
+        }
         registry.register(Vector.class, VECTOR);
     }
+
+    /**
+     * Reads a stack in any of the formats, so data can switch formats without a migration.
+     */
+    private static ItemStack readItem(Object raw) {
+        if (raw == null) return null;
+        if (raw instanceof Map<?, ?> map) {
+            Map<String, Object> prepared = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                prepared.put(Objects.toString(e.getKey()), e.getValue());
+            }
+            return ItemStack.deserialize(prepared);
+        }
+        return deserializeItem(bytes(raw));
+    }
+
+    private static ItemStack[] readItems(Object raw) {
+        if (raw == null) return null;
+        if (raw instanceof List<?> list) {
+            ItemStack[] out = new ItemStack[list.size()];
+            for (int i = 0; i < out.length; i++) {
+                out[i] = readItem(list.get(i));
+            }
+            return out;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes(raw)))) {
+            int count = in.readInt();
+            // every slot takes at least its 4 byte length
+            if (count < 0 || count > in.available() / Integer.BYTES) {
+                throw new IOException("Invalid slot count " + count + " with " + in.available() + " bytes left");
+            }
+            ItemStack[] out = new ItemStack[count];
+            for (int i = 0; i < out.length; i++) {
+                int length = in.readInt();
+                if (length == -1) continue;
+                if (length < 0 || length > in.available()) {
+                    throw new IOException("Invalid length " + length + " for slot " + i + " with " + in.available() + " bytes left");
+                }
+                out[i] = deserializeItem(in.readNBytes(length));
+            }
+            return out;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt item array", e);
+        }
+    }
+
+    /**
+     * Slot count, then per slot the byte length (-1 for null, 0 for an empty stack) and the bytes.
+     */
+    private static byte[] writeItems(ItemStack[] items) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(items.length * 64);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(items.length);
+            for (ItemStack item : items) {
+                if (item == null) {
+                    out.writeInt(-1);
+                    continue;
+                }
+                byte[] bytes = itemBytes(item);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * {@link ItemStack#serializeAsBytes()} rejects empty stacks, so they are written as zero bytes.
+     */
+    private static byte[] itemBytes(ItemStack item) {
+        return item.isEmpty() ? new byte[0] : item.serializeAsBytes();
+    }
+
+    private static ItemStack deserializeItem(byte[] bytes) {
+        return bytes.length == 0 ? ItemStack.empty() : ItemStack.deserializeBytes(bytes);
+    }
+
+    private static byte[] bytes(Object raw) {
+        if (raw instanceof byte[] b) return b;
+        if (raw instanceof String s) return Base64.getDecoder().decode(s);
+        if (raw instanceof Binary b) return b.getData();
+        if (raw instanceof BsonBinary b) return b.getData();
+        throw new IllegalArgumentException("Expected bytes or base64 for ItemStack, got " + raw.getClass().getSimpleName());
+    }
 }
@@ -21,8 +21,12 @@ public final class PaperDataStores implements Closeable {
     private final YamlDataEngine yamlEngine;
 
     public PaperDataStores(JavaPlugin plugin) {
+        this(plugin, ItemFormat.MAP);
+    }
+
+    public PaperDataStores(JavaPlugin plugin, ItemFormat itemFormat) {
         this.plugin = Objects.requireNonNull(plugin, "plugin");
-        PaperDataSerializers.registerAll(registry);
+        PaperDataSerializers.registerAll(registry, Objects.requireNonNull(itemFormat, "itemFormat"));
         this.yamlEngine = new YamlDataEngine(registry);
     }
 
@@ -7,18 +7,43 @@
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import org.bukkit.command.CommandSender;
 
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 @SuppressWarnings("unused")
 public final class Lang {
     private static final MiniMessage MM = MiniMessage.miniMessage();
+    private static final int TEMPLATE_CACHE_LIMIT = 1024;
+    private static final Map<String, MessageTemplate> TEMPLATES = new ConcurrentHashMap<>();
 
     private Lang() {
     }
 
     public static Component mm(String template, TagResolver... resolvers) {
+        return template(template).render(resolvers);
+    }
+
+    /**
+     * Compiled form of the template, cached. The cache is cleared once it reaches its limit,
+     * so templates built from dynamic strings cannot grow it without bound.
+     */
+    public static MessageTemplate template(String template) {
         Objects.requireNonNull(template, "template");
-        return MM.deserialize(template, resolvers);
+        MessageTemplate cached = TEMPLATES.get(template);
+        if (cached != null) {
+            return cached;
+        }
+        MessageTemplate compiled = MessageTemplate.compile(template);
+        if (TEMPLATES.size() >= TEMPLATE_CACHE_LIMIT) {
+            TEMPLATES.clear();
+        }
+        MessageTemplate raced = TEMPLATES.putIfAbsent(template, compiled);
+        return raced != null ? raced : compiled;
+    }
+
+    public static void clearTemplateCache() {
+        TEMPLATES.clear();
     }
 
     public static void send(Audience audience, Component component) {
@@ -45,6 +70,77 @@ public static void send(CommandSender sender, String template, TagResolver... re
         sender.sendMessage(mm(template, resolvers));
     }
 
+    /**
+     * Sends one message to many audiences, rendering the template once.
+     */
+    public static void broadcast(Collection<? extends Audience> audiences, String template, TagResolver... resolvers) {
+        Objects.requireNonNull(audiences, "audiences");
+        if (audiences.isEmpty()) {
+            return;
+        }
+        Component component = mm(template, resolvers);
+        for (Audience audience : audiences) {
+            audience.sendMessage(component);
+        }
+    }
+
+    /**
+     * Sends one message to many audiences with per-viewer placeholders.
+     * Shared placeholders are resolved once, {@code perViewer} only supplies what differs per audience.
+     * Audiences whose placeholders resolve to the same values share one built component.
+     */
+    public static <A extends Audience> void broadcast(Collection<? extends A> audiences, String template,
+                                                      Function<? super A, ? extends TagResolver> perViewer,
+                                                      TagResolver... shared) {
+        Objects.requireNonNull(audiences, "audiences");
+        Objects.requireNonNull(perViewer, "perViewer");
+        if (audiences.isEmpty()) {
+            return;
+        }
+        MessageTemplate compiled = template(template);
+        if (compiled.isStatic()) {
+            broadcast(audiences, template);
+            return;
+        }
+        if (!compiled.isCompiled() || compiled.needsFullParse(shared)) {
+            for (A audience : audiences) {
+                TagResolver own = perViewer.apply(audience);
+                audience.sendMessage(own == null ? compiled.render(shared) : compiled.render(own, TagResolver.resolver(shared)));
+            }
+            return;
+        }
+
+        Component[] base = compiled.resolveSlots(shared);
+        Map<List<Component>, List<A>> groups = new LinkedHashMap<>();
+        List<A> unchanged = new ArrayList<>();
+        for (A audience : audiences) {
+            TagResolver own = perViewer.apply(audience);
+            if (own != null && compiled.needsFullParse(own)) {
+                audience.sendMessage(compiled.render(own, TagResolver.resolver(shared)));
+                continue;
+            }
+            Component[] values = base.clone();
+            if (own == null || !compiled.resolveSlots(values, own)) {
+                unchanged.add(audience);
+                continue;
+            }
+            groups.computeIfAbsent(Arrays.asList(values), k -> new ArrayList<>()).add(audience);
+        }
+
+        if (!unchanged.isEmpty()) {
+            Component component = compiled.assemble(base);
+            for (A audience : unchanged) {
+                audience.sendMessage(component);
+            }
+        }
+        for (Map.Entry<List<Component>, List<A>> group : groups.entrySet()) {
+            Component component = compiled.assemble(group.getKey().toArray(new Component[0]));
+            for (A audience : group.getValue()) {
+                audience.sendMessage(component);
+            }
+        }
+    }
+
     public static TagResolver placeholder(String key, Component value) {
         //noinspection PatternValidation
         return Placeholder.component(key, value);
@@ -0,0 +1,215 @@
+package com.dractical.femutils.paper.lang;
+
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.identity.Identity;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.simpleyaml.configuration.file.YamlFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Localized messages loaded from {@code <folder>/<locale>.yml} in the plugin data folder,
+ * e.g. {@code lang/en_US.yml}. Missing files are copied from the plugin jar when present.
+ * A locale is loaded the first time it is requested. Its fallback chain (locale, language,
+ * default locale) is merged into a single table at load time, so a lookup is one map get.
+ */
+@SuppressWarnings("unused")
+public final class LangBundle {
+    private final JavaPlugin plugin;
+    private final String folder;
+    private final Locale defaultLocale;
+    private volatile State state = new State();
+
+    public LangBundle(JavaPlugin plugin, String folder, Locale defaultLocale) {
+        this.plugin = Objects.requireNonNull(plugin, "plugin");
+        this.folder = Objects.requireNonNull(folder, "folder");
+        this.defaultLocale = Objects.requireNonNull(defaultLocale, "defaultLocale");
+    }
+
+    public Locale defaultLocale() {
+        return defaultLocale;
+    }
+
+    /**
+     * Client locale of the audience, or the default locale if it has none.
+     */
+    public Locale locale(Audience audience) {
+        Objects.requireNonNull(audience, "audience");
+        return audience.get(Identity.LOCALE).orElse(defaultLocale);
+    }
+
+    public MessageTemplate template(Locale locale, String key) {
+        Objects.requireNonNull(key, "key");
+        MessageTemplate template = messages(locale).get(key);
+        return template != null ? template : Lang.template(key);
+    }
+
+    public Component get(Locale locale, String key, TagResolver... resolvers) {
+        return template(locale, key).render(resolvers);
+    }
+
+    public Component get(Audience audience, String key, TagResolver... resolvers) {
+        return get(locale(audience), key, resolvers);
+    }
+
+    public void send(Audience audience, String key, TagResolver... resolvers) {
+        audience.sendMessage(get(audience, key, resolvers));
+    }
+
+    /**
+     * Sends the message to every audience, rendering it once per locale.
+     */
+    public void broadcast(Collection<? extends Audience> audiences, String key, TagResolver... resolvers) {
+        Objects.requireNonNull(audiences, "audiences");
+        Map<Locale, List<Audience>> byLocale = new HashMap<>();
+        for (Audience audience : audiences) {
+            byLocale.computeIfAbsent(locale(audience), k -> new ArrayList<>()).add(audience);
+        }
+        for (Map.Entry<Locale, List<Audience>> group : byLocale.entrySet()) {
+            Component component = get(group.getKey(), key, resolvers);
+            for (Audience audience : group.getValue()) {
+                audience.sendMessage(component);
+            }
+        }
+    }
+
+    public Set<Locale> loadedLocales() {
+        State current = state;
+        Set<Locale> loaded = new HashSet<>(current.bundles.keySet());
+        loaded.removeAll(current.failed);
+        return Set.copyOf(loaded);
+    }
+
+    /**
+     * Re-reads every loaded locale into a fresh bundle and swaps it in at once.
+     * Readers see either the old or the new messages, never a mix. On failure the old bundle stays.
+     */
+    public void reload() throws IOException {
+        State old = state;
+        State fresh = new State();
+        try {
+            fresh.bundle(defaultLocale, this);
+            for (Locale locale : old.bundles.keySet()) {
+                if (!old.failed.contains(locale)) fresh.bundle(locale, this);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        state = fresh;
+    }
+
+    private Map<String, MessageTemplate> messages(Locale locale) {
+        Locale effective = locale != null ? locale : defaultLocale;
+        State current = state;
+        Map<String, MessageTemplate> messages = current.bundles.get(effective);
+        if (messages != null) {
+            return messages;
+        }
+        try {
+            return current.bundle(effective, this);
+        } catch (UncheckedIOException e) {
+            plugin.getLogger().warning("Failed to load messages for " + effective + ": " + e.getCause().getMessage());
+            // remember the failure until the next reload instead of retrying the disk on every message
+            Map<String, MessageTemplate> fallback = effective.equals(defaultLocale) ? Map.of() : messages(defaultLocale);
+            current.failed.add(effective);
+            Map<String, MessageTemplate> raced = current.bundles.putIfAbsent(effective, fallback);
+            return raced != null ? raced : fallback;
+        }
+    }
+
+    private List<String> chain(Locale locale) {
+        LinkedHashSet<String> names = new LinkedHashSet<>();
+        names.add(locale.toString());
+        names.add(locale.getLanguage());
+        names.add(defaultLocale.toString());
+        names.add(defaultLocale.getLanguage());
+        names.remove("");
+        return new ArrayList<>(names);
+    }
+
+    private Map<String, String> readFile(String name) throws IOException {
+        Path dir = plugin.getDataFolder().toPath().resolve(folder);
+        Path path = dir.resolve(name + ".yml");
+        if (Files.notExists(path)) {
+            Path lower = dir.resolve(name.toLowerCase(Locale.ROOT) + ".yml");
+            if (Files.exists(lower)) {
+                path = lower;
+            } else {
+                try (InputStream in = plugin.getResource(folder + "/" + name + ".yml")) {
+                    if (in == null) {
+                        return Map.of();
+                    }
+                    Files.createDirectories(dir);
+                    Files.copy(in, path);
+                }
+            }
+        }
+
+        YamlFile yaml = new YamlFile(path.toFile());
+        try {
+            yaml.load();
+        } catch (Exception e) {
+            throw new IOException("Failed to load messages " + path + ": " + e.getMessage(), e);
+        }
+        Map<String, String> out = new HashMap<>();
+        for (String key : yaml.getKeys(true)) {
+            Object value = yaml.get(key);
+            if (value instanceof List<?> lines) {
+                StringJoiner joiner = new StringJoiner("\n");
+                for (Object line : lines) joiner.add(String.valueOf(line));
+                out.put(key, joiner.toString());
+            } else if (value != null && !yaml.isConfigurationSection(key)) {
+                out.put(key, value.toString());
+            }
+        }
+        return out;
+    }
+
+    /**
+     * One generation of loaded bundles. Replaced as a whole on reload.
+     */
+    private static final class State {
+        private final Map<Locale, Map<String, MessageTemplate>> bundles = new ConcurrentHashMap<>();
+        private final Map<String, Map<String, String>> files = new ConcurrentHashMap<>();
+        private final Map<String, MessageTemplate> interned = new ConcurrentHashMap<>();
+        // locales whose bundle is only the fallback because their file failed to load
+        private final Set<Locale> failed = ConcurrentHashMap.newKeySet();
+
+        Map<String, MessageTemplate> bundle(Locale locale, LangBundle owner) {
+            return bundles.computeIfAbsent(locale, l -> build(l, owner));
+        }
+
+        private Map<String, MessageTemplate> build(Locale locale, LangBundle owner) {
+            List<String> chain = owner.chain(locale);
+            Map<String, MessageTemplate> merged = new HashMap<>();
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                for (Map.Entry<String, String> e : file(chain.get(i), owner).entrySet()) {
+                    merged.put(e.getKey().intern(), interned.computeIfAbsent(e.getValue(), MessageTemplate::compile));
+                }
+            }
+            return Map.copyOf(merged);
+        }
+
+        private Map<String, String> file(String name, LangBundle owner) {
+            Map<String, String> cached = files.get(name);
+            if (cached != null) {
+                return cached;
+            }
+            try {
+                Map<String, String> read = owner.readFile(name);
+                files.put(name, read);
+                return read;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
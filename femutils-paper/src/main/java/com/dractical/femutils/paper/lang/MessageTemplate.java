@@ -0,0 +1,279 @@
+package com.dractical.femutils.paper.lang;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.minimessage.Context;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.minimessage.tag.resolver.ArgumentQueue;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import net.kyori.adventure.text.minimessage.tag.standard.StandardTags;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * MiniMessage template parsed once.
+ * Templates without placeholders are kept as a ready component. Templates with placeholders keep
+ * their parsed tree with a marker in every placeholder slot, and only the slots are filled per render.
+ * Placeholder values are rendered in isolation, like {@link Lang#placeholder(String, Component)}.
+ * Templates that use placeholders with arguments or as wrapping tags are parsed in full on every render,
+ * and so is a render where a placeholder with text after it resolves to a tag that could style that text,
+ * e.g. an unclosed {@code <hl>} bound to {@code Placeholder.styling}.
+ */
+@SuppressWarnings("unused")
+public final class MessageTemplate {
+    private static final MiniMessage MM = MiniMessage.miniMessage();
+    private static final MiniMessage RAW = MiniMessage.builder().postProcessor(UnaryOperator.identity()).build();
+    private static final TagResolver STANDARD = StandardTags.defaults();
+    private static final String SLOT_INSERTION = "femutils:slot";
+    private static final char SLOT_BASE = '\uE000';
+    private static final int MAX_SLOTS = 256;
+    private static final Component[] NO_VALUES = new Component[0];
+
+    private final String source;
+    private final Component component;
+    private final String[] slots;
+    private final String[] slotTags;
+    private final boolean[] followed;
+    private final boolean compiled;
+
+    private MessageTemplate(String source, Component component, String[] slots, boolean[] followed, boolean compiled) {
+        this.source = source;
+        this.component = component;
+        this.slots = slots;
+        this.followed = followed;
+        this.compiled = compiled;
+        this.slotTags = new String[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            slotTags[i] = "<" + slots[i] + ">";
+        }
+    }
+
+    public static MessageTemplate compile(String template) {
+        Objects.requireNonNull(template, "template");
+        SlotResolver resolver = new SlotResolver();
+        Component skeleton = RAW.deserialize(template, resolver);
+        if (resolver.names.isEmpty()) {
+            return new MessageTemplate(template, skeleton.compact(), new String[0], new boolean[0], true);
+        }
+
+        String[] slots = resolver.names.keySet().toArray(new String[0]);
+        boolean compiled = !resolver.unsupported && slots.length <= MAX_SLOTS;
+        boolean[] followed = new boolean[slots.length];
+        if (compiled) {
+            boolean[] seen = new boolean[slots.length];
+            markSeen(skeleton, seen, followed);
+            for (int i = 0; i < slots.length && compiled; i++) {
+                compiled = seen[i] && !template.contains("</" + slots[i]);
+            }
+        }
+        return new MessageTemplate(template, compiled ? skeleton : null, slots, followed, compiled);
+    }
+
+    public String source() {
+        return source;
+    }
+
+    /**
+     * True if the template has no placeholders and always renders the same component.
+     */
+    public boolean isStatic() {
+        return slots.length == 0;
+    }
+
+    public Component render(TagResolver... resolvers) {
+        if (slots.length == 0) {
+            return component;
+        }
+        if (!compiled || needsFullParse(resolvers)) {
+            return MM.deserialize(source, resolvers);
+        }
+        return assemble(resolveSlots(resolvers));
+    }
+
+    /**
+     * True if one of the resolvers binds a placeholder that has text after it to a tag that could
+     * change that text, so the slots cannot be rendered in isolation.
+     */
+    boolean needsFullParse(TagResolver... resolvers) {
+        TagResolver combined = null;
+        for (int i = 0; i < slots.length; i++) {
+            if (!followed[i]) continue;
+            Tag tag = singleTag(slots[i], resolvers);
+            if (tag == null) {
+                if (combined == null) {
+                    combined = TagResolver.resolver(resolvers);
+                }
+                // not a plain placeholder, so its tag type is unknown
+                if (combined.has(slots[i])) return true;
+                continue;
+            }
+            if (tag instanceof Tag.Inserting inserting && !inserting.allowsChildren()) continue;
+            if (tag instanceof Tag.PreProcess preProcess && preProcess.value().indexOf('<') < 0) continue;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Resolves the value of every slot, slots no resolver knows stay as literal text.
+     */
+    Component[] resolveSlots(TagResolver... resolvers) {
+        if (slots.length == 0) {
+            return NO_VALUES;
+        }
+        Component[] values = new Component[slots.length];
+        TagResolver combined = null;
+        for (int i = 0; i < slots.length; i++) {
+            Component value = resolveSingle(slots[i], resolvers);
+            if (value == null) {
+                if (combined == null) {
+                    combined = TagResolver.resolver(resolvers);
+                }
+                value = combined.has(slots[i])
+                        ? MM.deserialize(slotTags[i], combined)
+                        : Component.text(slotTags[i]);
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Overwrites the slots the resolver knows, returns false if it knows none of them.
+     */
+    boolean resolveSlots(Component[] values, TagResolver resolver) {
+        boolean changed = false;
+        for (int i = 0; i < slots.length; i++) {
+            if (!resolver.has(slots[i])) continue;
+            Component value = resolveSingle(slots[i], resolver);
+            values[i] = value != null ? value : MM.deserialize(slotTags[i], resolver);
+            changed = true;
+        }
+        return changed;
+    }
+
+    boolean isCompiled() {
+        return compiled;
+    }
+
+    Component assemble(Component[] values) {
+        if (slots.length == 0) {
+            return component;
+        }
+        if (!compiled) {
+            throw new IllegalStateException("Template is not compiled: " + source);
+        }
+        return fill(component, values);
+    }
+
+    /**
+     * Fast path for placeholders made through {@link Lang#placeholder}, which need no parsing.
+     */
+    private static Component resolveSingle(String name, TagResolver... resolvers) {
+        Tag tag = singleTag(name, resolvers);
+        if (tag instanceof Tag.Inserting inserting) {
+            return inserting.value();
+        }
+        if (tag instanceof Tag.PreProcess preProcess) {
+            return MM.deserialize(preProcess.value(), resolvers);
+        }
+        return null;
+    }
+
+    /**
+     * Tag of the first single placeholder resolver for the name, or null if there is none.
+     */
+    private static Tag singleTag(String name, TagResolver... resolvers) {
+        for (TagResolver resolver : resolvers) {
+            if (resolver instanceof TagResolver.Single single && single.key().equals(name)) {
+                return single.tag();
+            }
+        }
+        return null;
+    }
+
+    private static Component fill(Component node, Component[] values) {
+        int slot = slotIndex(node);
+        if (slot >= 0 && slot < values.length) {
+            return values[slot];
+        }
+        List<Component> children = node.children();
+        if (children.isEmpty()) {
+            return node;
+        }
+        List<Component> replaced = null;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component filled = fill(child, values);
+            if (filled != child) {
+                if (replaced == null) {
+                    replaced = new ArrayList<>(children);
+                }
+                replaced.set(i, filled);
+            }
+        }
+        return replaced == null ? node : node.children(replaced);
+    }
+
+    /**
+     * Marks the slots present in the tree, and in {@code followed} the ones with siblings after them,
+     * which an unclosed tag in their place would have wrapped.
+     */
+    private static void markSeen(Component node, boolean[] seen, boolean[] followed) {
+        int slot = slotIndex(node);
+        if (slot >= 0 && slot < seen.length) {
+            seen[slot] = true;
+        }
+        List<Component> children = node.children();
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            int childSlot = slotIndex(child);
+            if (childSlot >= 0 && childSlot < followed.length && i < children.size() - 1) {
+                followed[childSlot] = true;
+            }
+            markSeen(child, seen, followed);
+        }
+    }
+
+    private static int slotIndex(Component node) {
+        if (!(node instanceof TextComponent text) || !SLOT_INSERTION.equals(node.insertion())) {
+            return -1;
+        }
+        String content = text.content();
+        return content.length() == 1 ? content.charAt(0) - SLOT_BASE : -1;
+    }
+
+    /**
+     * Claims every non-standard tag and inserts a marker in its place.
+     */
+    private static final class SlotResolver implements TagResolver {
+        private final Map<String, Integer> names = new LinkedHashMap<>();
+        private boolean unsupported;
+
+        @Override
+        public Tag resolve(@NotNull String name, @NotNull ArgumentQueue arguments, @NotNull Context ctx) {
+            if (arguments.hasNext()) {
+                unsupported = true;
+            }
+            Integer index = names.get(name);
+            if (index == null) {
+                index = names.size();
+                names.put(name, index);
+            }
+            char marker = (char) (SLOT_BASE + Math.min(index, MAX_SLOTS));
+            return Tag.selfClosingInserting(Component.text(String.valueOf(marker)).insertion(SLOT_INSERTION));
+        }
+
+        @Override
+        public boolean has(@NotNull String name) {
+            return !STANDARD.has(name);
+        }
+    }
+}